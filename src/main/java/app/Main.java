@@ -3,6 +3,7 @@ package app;
 import controller.HitoriGame;
 import javafx.application.Application;
 import javafx.stage.Stage;
+import server.HitoriServer;
 import ui.LevelSelectorUI;
 
 public class Main extends Application {
@@ -14,7 +15,15 @@ public class Main extends Application {
         selectorUI.show(primaryStage);
     }
 
-    public static void main(String[] args) {
+    /**
+     * Sans argument, lance le jeu ; avec --server [port], démarre le serveur
+     * HTTP local sans interface
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("--server")) {
+            HitoriServer.run(args.length > 1 ? Integer.parseInt(args[1]) : HitoriServer.DEFAULT_PORT);
+            return;
+        }
         launch(args);
     }
 }
@@ -1,47 +1,202 @@
 package controller;
 
 import exception.InvalidMoveException;
-import model.Cell;
 import model.Grid;
-import util.FileUtils;
+import solver.Hint;
+import solver.HintEngine;
+import solver.SolutionCache;
+import solver.SolveResult;
+import util.BackgroundTasks;
+import util.PuzzlePack;
+import util.PuzzleRepository;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 public class HitoriGame {
 
+    // Taille à partir de laquelle la résolution automatique utilise tous les cœurs
+    private static final int PARALLEL_SOLVE_SIZE = 20;
+
+    // Niveaux proposés, dans l'ordre de difficulté
+    private static final String[] LEVELS = {"easy", "medium", "hard"};
+
+    // Solutions partagées entre les parties : une grille déjà résolue (même
+    // tournée, retournée ou renumérotée) ne repasse pas par le solveur
+    private static final SolutionCache SOLUTIONS = new SolutionCache(256);
+
     private Grid grid;
+    // Niveau de la grille chargée (null pour une grille fournie directement)
+    private String level;
+    // Créé au premier indice demandé, propre à la grille courante
+    private HintEngine hintEngine;
+    // Solution de la grille courante, calculée en arrière-plan dès son chargement
+    private CompletableFuture<SolveResult> solution;
+    // Coups joués, pour annuler/rétablir
+    private final MoveLog moves = new MoveLog();
 
     public HitoriGame() {}
 
     public void loadGrid(String level) throws Exception {
-        this.grid = FileUtils.loadGridFromFile(level);
+        setGrid(PuzzleRepository.getDefault().load(level));
+        this.level = level;
+    }
+
+    /**
+     * Lit la grille du niveau sur un thread d'arrière-plan, puis l'installe
+     * dans la partie sur owner, le thread qui la manipule (Platform::runLater
+     * pour l'interface) ; le futur se termine une fois la grille installée
+     */
+    public CompletableFuture<Grid> loadGridAsync(String level, Executor owner) {
+        return CompletableFuture
+            .supplyAsync(() -> {
+                try {
+                    return PuzzleRepository.getDefault().load(level);
+                } catch (IOException e) {
+                    throw new CompletionException(e);
+                }
+            }, BackgroundTasks.executor())
+            .thenApplyAsync(loaded -> {
+                setGrid(loaded);
+                this.level = level;
+                return loaded;
+            }, owner);
+    }
+
+    /**
+     * Niveau qui suit celui en cours, ou null pour le dernier niveau ou une
+     * grille hors niveaux
+     */
+    public String getNextLevel() {
+        for (int k = 0; k < LEVELS.length - 1; k++) {
+            if (LEVELS[k].equals(level)) {
+                return LEVELS[k + 1];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Met en cache, en arrière-plan, la grille du niveau suivant pour que
+     * son chargement soit immédiat
+     */
+    public void prefetchNextLevel() {
+        String next = getNextLevel();
+        if (next != null) {
+            PuzzleRepository.getDefault().prefetch(next);
+        }
     }
 
     public Grid getGrid() {
         return grid;
     }
 
+    /**
+     * Charge la grille numéro n d'un paquet
+     */
+    public void loadGrid(PuzzlePack pack, int n) {
+        setGrid(pack.load(n));
+        this.level = "pack#" + pack.getId(n);
+    }
+
+    public String getLevel() {
+        return level;
+    }
+
+    public void setLevel(String level) {
+        this.level = level;
+    }
+
     public void setGrid(Grid grid) {
         this.grid = grid;
+        this.level = null;
+        this.hintEngine = null;
+        this.solution = grid == null ? null : solveInBackground(grid);
+        moves.clear();
+    }
+
+    /**
+     * Résout une copie des chiffres de la grille sur un thread d'arrière-plan,
+     * via le cache de solutions partagé
+     */
+    private static CompletableFuture<SolveResult> solveInBackground(Grid grid) {
+        Grid values = grid.blankCopy();
+        return CompletableFuture.supplyAsync(() -> SOLUTIONS.solve(values), BackgroundTasks.executor());
     }
 
     /**
      * Noircir ou blanchir une case
      */
     public void toggleCell(int row, int col) throws InvalidMoveException {
-        Cell cell = grid.getCell(row, col);
-        cell.toggleState();
+        grid.toggle(row, col);
         
         // Vérifier si le coup crée des noires adjacentes
         if (!grid.isMoveValid(row, col)) {
-            cell.toggleState(); // Annuler
+            grid.toggle(row, col); // Annuler
             throw new InvalidMoveException("Coup invalide : deux cases noires ne peuvent pas être adjacentes !");
         }
+        moves.record(row * grid.getSize() + col, grid.isWhite(row, col));
+    }
+
+    public boolean canUndo() {
+        return moves.canUndo();
+    }
+
+    public boolean canRedo() {
+        return moves.canRedo();
+    }
+
+    /**
+     * Annule le dernier coup ; retourne l'index (row * size + col) de la
+     * case rétablie, ou -1 s'il n'y a rien à annuler
+     */
+    public int undo() {
+        if (!moves.canUndo()) {
+            return -1;
+        }
+        int move = moves.undo();
+        int index = MoveLog.cellIndex(move);
+        grid.setBlack(index / grid.getSize(), index % grid.getSize(), MoveLog.wasBlack(move));
+        return index;
+    }
+
+    /**
+     * Rejoue le dernier coup annulé ; même retour que undo
+     */
+    public int redo() {
+        if (!moves.canRedo()) {
+            return -1;
+        }
+        int move = moves.redo();
+        int index = MoveLog.cellIndex(move);
+        grid.setBlack(index / grid.getSize(), index % grid.getSize(), !MoveLog.wasBlack(move));
+        return index;
+    }
+
+    /**
+     * Point de retour pour des coups exploratoires (joueur automatique)
+     */
+    public int checkpoint() {
+        return moves.size();
+    }
+
+    /**
+     * Annule tous les coups joués depuis checkpoint
+     */
+    public void rollback(int checkpoint) {
+        while (moves.size() > checkpoint) {
+            undo();
+        }
     }
 
     /**
      * Vérifie si le joueur a gagné
      */
     public boolean isGameWon() {
-        return grid.isValid();
+        // Les règles 1 et 2 sont tenues à jour à chaque toggleCell
+        return grid.getValidator().isSolved();
     }
 
     /**
@@ -49,11 +204,40 @@ public class HitoriGame {
      */
     public void resetGrid() {
         if (grid != null) {
-            for (int i = 0; i < grid.getSize(); i++) {
-                for (int j = 0; j < grid.getSize(); j++) {
-                    grid.getCell(i, j).setState(Cell.State.WHITE);
-                }
-            }
+            grid.clearStates();
+        }
+        moves.clear();
+    }
+
+    /**
+     * Prochain coup logique pour l'état actuel de la grille, ou null si
+     * plus rien n'est à suggérer (ou si la solution, nécessaire pour aller
+     * plus loin, est encore en cours de calcul)
+     */
+    public Hint getHint() {
+        if (hintEngine == null) {
+            hintEngine = new HintEngine(grid, solution);
+        }
+        return hintEngine.nextHint(grid);
+    }
+
+    /**
+     * Résout automatiquement la grille et la laisse dans l'état solution
+     */
+    public SolveResult autoSolve() {
+        return autoSolve(grid.getSize() >= PARALLEL_SOLVE_SIZE ? Runtime.getRuntime().availableProcessors() : 1);
+    }
+
+    /**
+     * Résolution automatique sur un nombre de threads donné, via le cache de
+     * solutions partagé ; les coups joués avant ne peuvent plus être annulés
+     */
+    public SolveResult autoSolve(int threads) {
+        SolveResult result = SOLUTIONS.solve(grid, threads);
+        if (result.isSolved()) {
+            result.applyTo(grid);
+            moves.clear();
         }
+        return result;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,71 @@
+package controller;
+
+import java.util.Arrays;
+
+/**
+ * Historique des coups pour annuler/rétablir, sans objet par coup : chaque
+ * coup est un int (index de la case << 1 | ancien état noir) dans un tableau
+ * qui grandit par doublement. Les coups au-delà du curseur sont ceux qu'on
+ * peut rétablir ; un nouveau coup les efface.
+ */
+public class MoveLog {
+
+    private int[] moves = new int[64];
+    // Nombre de coups joués (et non annulés)
+    private int cursor;
+    // Nombre de coups enregistrés, rétablissables compris
+    private int end;
+
+    /**
+     * Enregistre un coup sur la case index, noire avant le coup si wasBlack
+     */
+    public void record(int index, boolean wasBlack) {
+        if (cursor == moves.length) {
+            moves = Arrays.copyOf(moves, moves.length * 2);
+        }
+        moves[cursor++] = index << 1 | (wasBlack ? 1 : 0);
+        end = cursor;
+    }
+
+    public boolean canUndo() {
+        return cursor > 0;
+    }
+
+    public boolean canRedo() {
+        return cursor < end;
+    }
+
+    /**
+     * Recule d'un coup et le retourne (à annuler par l'appelant)
+     */
+    public int undo() {
+        return moves[--cursor];
+    }
+
+    /**
+     * Avance d'un coup et le retourne (à rejouer par l'appelant)
+     */
+    public int redo() {
+        return moves[cursor++];
+    }
+
+    /**
+     * Nombre de coups joués, à passer plus tard à un retour en arrière
+     */
+    public int size() {
+        return cursor;
+    }
+
+    public void clear() {
+        cursor = 0;
+        end = 0;
+    }
+
+    public static int cellIndex(int move) {
+        return move >>> 1;
+    }
+
+    public static boolean wasBlack(int move) {
+        return (move & 1) != 0;
+    }
+}
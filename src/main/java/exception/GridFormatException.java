@@ -0,0 +1,29 @@
+package exception;
+
+import java.io.IOException;
+
+/**
+ * Fichier de grille mal formé, avec la position (ligne et colonne, à partir
+ * de 1) du premier caractère fautif
+ */
+public class GridFormatException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int line;
+    private final int column;
+
+    public GridFormatException(String message, int line, int column) {
+        super("Ligne " + line + ", colonne " + column + " : " + message);
+        this.line = line;
+        this.column = column;
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    public int getColumn() {
+        return column;
+    }
+}
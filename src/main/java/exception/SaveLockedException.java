@@ -0,0 +1,15 @@
+package exception;
+
+import java.io.IOException;
+
+/**
+ * Sauvegarde déjà utilisée par une autre instance du jeu (fichier verrouillé)
+ */
+public class SaveLockedException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    public SaveLockedException(String message) {
+        super(message);
+    }
+}
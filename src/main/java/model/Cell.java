@@ -7,37 +7,68 @@ public class Cell {
     private final int value;
     private State state;
 
+    // Grille propriétaire quand la case n'est qu'une vue sur un Grid (null sinon)
+    private final Grid grid;
+    private final int row;
+    private final int col;
+
     public Cell(int value) {
         this.value = value;
         this.state = State.WHITE;
+        this.grid = null;
+        this.row = -1;
+        this.col = -1;
+    }
+
+    /**
+     * Vue sur la case (row, col) d'une grille : l'état est lu et écrit
+     * directement dans les bitboards du Grid
+     */
+    Cell(Grid grid, int row, int col) {
+        this.value = 0;
+        this.state = null;
+        this.grid = grid;
+        this.row = row;
+        this.col = col;
     }
 
     public int getValue() {
-        return value;
+        return grid != null ? grid.getValue(row, col) : value;
     }
 
     public State getState() {
+        if (grid != null) {
+            return grid.isBlack(row, col) ? State.BLACK : State.WHITE;
+        }
         return state;
     }
 
     public void setState(State state) {
-        this.state = state;
+        if (grid != null) {
+            grid.setBlack(row, col, state == State.BLACK);
+        } else {
+            this.state = state;
+        }
     }
 
     public boolean isWhite() {
-        return state == State.WHITE;
+        return getState() == State.WHITE;
     }
 
     public boolean isBlack() {
-        return state == State.BLACK;
+        return getState() == State.BLACK;
     }
 
     public void toggleState() {
-        state = (state == State.WHITE) ? State.BLACK : State.WHITE;
+        if (grid != null) {
+            grid.toggle(row, col);
+        } else {
+            state = (state == State.WHITE) ? State.BLACK : State.WHITE;
+        }
     }
 
     @Override
     public String toString() {
-        return isBlack() ? "X" : String.valueOf(value);
+        return isBlack() ? "X" : String.valueOf(getValue());
     }
-}
\ No newline at end of file
+}
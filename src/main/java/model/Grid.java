@@ -1,182 +1,536 @@
 package model;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.util.Arrays;
 
+/**
+ * Grille Hitori stockée sous forme compacte : les valeurs dans un tableau
+ * de short et l'état noir/blanc dans des bitboards (un bit par case) par
+ * ligne et par colonne. Les objets Cell ne sont que des vues créées à la
+ * demande par getCell.
+ */
 public class Grid {
 
+    // Empreinte de l'état tout blanc (non nulle, pour les tables indexées par empreinte)
+    private static final long EMPTY_STATE_HASH = 0x6A09E667F3BCC909L;
+
     private final int size;
-    private final Cell[][] cells;
+    // Nombre de mots de 64 bits nécessaires pour une ligne (ou une colonne)
+    private final int words;
+    private final short[] values;
+    // rowBits[i * words + (j >>> 6)] bit (j & 63) = case (i, j) noire
+    private final long[] rowBits;
+    // colBits[j * words + (i >>> 6)] bit (i & 63) = case (i, j) noire
+    private final long[] colBits;
+    private int maxValue;
+    // Empreinte de Zobrist de l'état noir/blanc, mise à jour à chaque changement
+    private long stateHash = EMPTY_STATE_HASH;
+    // Validateur incrémental, créé à la première demande puis tenu à jour
+    private IncrementalValidator validator;
+    // Suivi dynamique de la connexité des blanches, créé à la première demande
+    private WhiteConnectivity connectivity;
+    // Parcours des blanches : file réutilisable et marques de visite datées
+    private int[] floodQueue;
+    private int[] visitStamps;
+    private int floodEpoch;
 
     public Grid(int size) {
         this.size = size;
-        cells = new Cell[size][size];
+        this.words = (size + 63) >>> 6;
+        this.values = new short[size * size];
+        this.rowBits = new long[size * words];
+        this.colBits = new long[size * words];
     }
 
     public int getSize() {
         return size;
     }
 
+    /**
+     * Place une valeur dans la case (row, col), qui redevient blanche
+     */
     public void setCell(int row, int col, int value) {
-        cells[row][col] = new Cell(value);
+        if (value < 0 || value > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Valeur hors limites : " + value);
+        }
+        if (validator != null) {
+            validator.invalidate();
+        }
+        values[row * size + col] = (short) value;
+        if (value > maxValue) {
+            maxValue = value;
+        }
+        setBlack(row, col, false);
+    }
+
+    /**
+     * Remplit la ligne row avec les count premières valeurs de rowValues
+     * (toutes blanches), sans créer de vue par case
+     */
+    public void setRow(int row, int[] rowValues, int count) {
+        if (validator != null) {
+            validator.invalidate();
+        }
+        int base = row * size;
+        for (int j = 0; j < count; j++) {
+            int value = rowValues[j];
+            if (value < 0 || value > Short.MAX_VALUE) {
+                throw new IllegalArgumentException("Valeur hors limites : " + value);
+            }
+            values[base + j] = (short) value;
+            if (value > maxValue) {
+                maxValue = value;
+            }
+        }
+        for (int w = 0; w < words; w++) {
+            for (long bits = rowBits[row * words + w]; bits != 0; bits &= bits - 1) {
+                setBlack(row, (w << 6) + Long.numberOfTrailingZeros(bits), false);
+            }
+        }
+    }
+
+    /**
+     * Nouvelle grille avec les mêmes chiffres, toutes les cases blanches
+     * (copie directe du tableau des valeurs)
+     */
+    public Grid blankCopy() {
+        Grid copy = new Grid(size);
+        System.arraycopy(values, 0, copy.values, 0, values.length);
+        copy.maxValue = maxValue;
+        return copy;
     }
 
     public Cell getCell(int row, int col) {
-        return cells[row][col];
+        if (row < 0 || col < 0 || row >= size || col >= size) {
+            throw new IndexOutOfBoundsException("Case hors de la grille : (" + row + "," + col + ")");
+        }
+        return new Cell(this, row, col);
+    }
+
+    public int getValue(int row, int col) {
+        return values[row * size + col];
+    }
+
+    public int getMaxValue() {
+        return maxValue;
+    }
+
+    public boolean isBlack(int row, int col) {
+        return (rowBits[row * words + (col >>> 6)] & (1L << col)) != 0;
+    }
+
+    public boolean isWhite(int row, int col) {
+        return !isBlack(row, col);
+    }
+
+    /**
+     * Noircit (black = true) ou blanchit une case en maintenant les deux bitboards
+     */
+    public void setBlack(int row, int col, boolean black) {
+        int r = row * words + (col >>> 6);
+        int c = col * words + (row >>> 6);
+        if (((rowBits[r] & (1L << col)) != 0) == black) {
+            return;
+        }
+        if (black) {
+            rowBits[r] |= 1L << col;
+            colBits[c] |= 1L << row;
+        } else {
+            rowBits[r] &= ~(1L << col);
+            colBits[c] &= ~(1L << row);
+        }
+        stateHash ^= zobristKey(row * size + col);
+        if (connectivity != null) {
+            connectivity.cellChanged(row, col, black);
+        }
+        if (validator != null) {
+            validator.cellChanged(row, col, black);
+        }
+    }
+
+    public void toggle(int row, int col) {
+        setBlack(row, col, !isBlack(row, col));
     }
 
     /**
-     * Vérifie si la grille respecte toutes les règles Hitori
+     * Remet toutes les cases en blanc
+     */
+    public void clearStates() {
+        Arrays.fill(rowBits, 0L);
+        Arrays.fill(colBits, 0L);
+        stateHash = EMPTY_STATE_HASH;
+        if (connectivity != null) {
+            connectivity.rebuild();
+        }
+        if (validator != null) {
+            validator.rebuild();
+        }
+    }
+
+    /**
+     * Empreinte 64 bits de l'état noir/blanc (les chiffres n'y entrent pas) :
+     * deux états identiques d'une même grille ont la même empreinte, tenue à
+     * jour en O(1) à chaque case noircie ou blanchie
+     */
+    public long getStateHash() {
+        return stateHash;
+    }
+
+    /**
+     * Clé de Zobrist de la case d'indice index (splitmix64), calculée à la
+     * demande plutôt que tirée dans une table de la taille de la grille
+     */
+    private static long zobristKey(int index) {
+        long z = (index + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Validateur incrémental attaché à cette grille (créé au premier appel)
+     */
+    public IncrementalValidator getValidator() {
+        if (validator == null) {
+            validator = new IncrementalValidator(this);
+        }
+        return validator;
+    }
+
+    /**
+     * Structure de connexité des blanches attachée à cette grille
+     */
+    public WhiteConnectivity getConnectivity() {
+        if (connectivity == null) {
+            connectivity = new WhiteConnectivity(this);
+        }
+        return connectivity;
+    }
+
+    /**
+     * Vérifie si la grille respecte toutes les règles Hitori.
+     * Chemin rapide : s'arrête à la première violation, sans aucune sortie console.
      */
     public boolean isValid() {
         return checkNoDuplicates() && checkNoAdjacentBlacks() && checkConnectedWhiteCells();
     }
 
     /**
-     * Règle 1 : Aucune ligne ni colonne ne doit contenir de doublons 
+     * Même vérification que isValid(), mais les règles 1 et 2 sont réparties
+     * sur les cœurs disponibles pour les très grandes grilles
+     */
+    public boolean isValidParallel() {
+        return ParallelValidator.getDefault().isValid(this);
+    }
+
+    /**
+     * Vérifie les trois règles et rassemble toutes les cases fautives
+     */
+    public ValidationReport validate() {
+        ValidationReport report = new ValidationReport(size);
+        collectDuplicates(report);
+        collectAdjacentBlacks(report);
+        collectDisconnectedWhites(report);
+        return report;
+    }
+
+    /**
+     * Règle 1 : Aucune ligne ni colonne ne doit contenir de doublons
      * parmi les chiffres visibles (cases blanches)
      */
     private boolean checkNoDuplicates() {
+        long[] seen = new long[(maxValue >>> 6) + 1];
+
         // Vérifier les lignes
         for (int i = 0; i < size; i++) {
-            Set<Integer> seenInRow = new HashSet<>();
-            for (int j = 0; j < size; j++) {
-                Cell cell = getCell(i, j);
-                if (cell.isWhite()) {
-                    if (seenInRow.contains(cell.getValue())) {
-                        System.out.println("❌ Doublon trouvé en ligne " + i + " : " + cell.getValue());
-                        return false;
-                    }
-                    seenInRow.add(cell.getValue());
-                }
+            if (rowHasDuplicate(i, seen)) {
+                return false;
             }
         }
 
         // Vérifier les colonnes
         for (int j = 0; j < size; j++) {
-            Set<Integer> seenInCol = new HashSet<>();
-            for (int i = 0; i < size; i++) {
-                Cell cell = getCell(i, j);
-                if (cell.isWhite()) {
-                    if (seenInCol.contains(cell.getValue())) {
-                        System.out.println("❌ Doublon trouvé en colonne " + j + " : " + cell.getValue());
-                        return false;
-                    }
-                    seenInCol.add(cell.getValue());
-                }
+            if (columnHasDuplicate(j, seen)) {
+                return false;
             }
         }
 
-        System.out.println("✅ Pas de doublons");
         return true;
     }
 
     /**
-     * Règle 2 : Deux cases noircies ne peuvent pas être adjacentes 
+     * Doublon parmi les blanches de la ligne row ? seen est un tampon de
+     * (maxValue / 64 + 1) mots fourni par l'appelant
+     */
+    boolean rowHasDuplicate(int row, long[] seen) {
+        Arrays.fill(seen, 0L);
+        for (int j = 0; j < size; j++) {
+            if (isBlack(row, j)) {
+                continue;
+            }
+            int value = values[row * size + j];
+            long bit = 1L << value;
+            if ((seen[value >>> 6] & bit) != 0) {
+                return true;
+            }
+            seen[value >>> 6] |= bit;
+        }
+        return false;
+    }
+
+    /**
+     * Doublon parmi les blanches de la colonne col ?
+     */
+    boolean columnHasDuplicate(int col, long[] seen) {
+        Arrays.fill(seen, 0L);
+        for (int i = 0; i < size; i++) {
+            if (isBlack(i, col)) {
+                continue;
+            }
+            int value = values[i * size + col];
+            long bit = 1L << value;
+            if ((seen[value >>> 6] & bit) != 0) {
+                return true;
+            }
+            seen[value >>> 6] |= bit;
+        }
+        return false;
+    }
+
+    /**
+     * Règle 2 : Deux cases noircies ne peuvent pas être adjacentes
      * horizontalement ou verticalement
      */
     private boolean checkNoAdjacentBlacks() {
-        for (int i = 0; i < size; i++) {
-            for (int j = 0; j < size; j++) {
-                if (getCell(i, j).isBlack()) {
-                    if (i > 0 && getCell(i - 1, j).isBlack()) {
-                        System.out.println("❌ Cases noires adjacentes trouvées en (" + i + "," + j + ")");
-                        return false;
-                    }
-                    if (i < size - 1 && getCell(i + 1, j).isBlack()) {
-                        System.out.println("❌ Cases noires adjacentes trouvées en (" + i + "," + j + ")");
-                        return false;
-                    }
-                    if (j > 0 && getCell(i, j - 1).isBlack()) {
-                        System.out.println("❌ Cases noires adjacentes trouvées en (" + i + "," + j + ")");
-                        return false;
-                    }
-                    if (j < size - 1 && getCell(i, j + 1).isBlack()) {
-                        System.out.println("❌ Cases noires adjacentes trouvées en (" + i + "," + j + ")");
-                        return false;
-                    }
+        return findAdjacentPair(rowBits) < 0 && findAdjacentPair(colBits) < 0;
+    }
+
+    /**
+     * Cherche deux bits voisins à 1 dans un des bitboards (par ligne ou par
+     * colonne) : un décalage et un ET par mot, plus le bit qui chevauche deux mots.
+     * Retourne ligne * size + indice du premier bit de la paire, ou -1.
+     */
+    private int findAdjacentPair(long[] bits) {
+        for (int line = 0; line < size; line++) {
+            for (int w = 0; w < words; w++) {
+                long pairs = adjacentPairs(bits, line, w);
+                if (pairs != 0) {
+                    return line * size + (w << 6) + Long.numberOfTrailingZeros(pairs);
                 }
             }
         }
-        System.out.println("✅ Pas de cases noires adjacentes");
-        return true;
+        return -1;
+    }
+
+    /**
+     * Deux noires adjacentes dans la ligne line ou dans la colonne line ?
+     */
+    boolean lineHasAdjacentBlacks(int line) {
+        for (int w = 0; w < words; w++) {
+            if (adjacentPairs(rowBits, line, w) != 0 || adjacentPairs(colBits, line, w) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Bits i du mot w de la ligne tels que les positions i et i + 1 sont noires
+     */
+    private long adjacentPairs(long[] bits, int line, int w) {
+        int base = line * words;
+        long word = bits[base + w];
+        long pairs = word & (word >>> 1);
+        if (w + 1 < words) {
+            pairs |= ((word >>> 63) & bits[base + w + 1]) << 63;
+        }
+        return pairs;
     }
 
     /**
      * Règle 3 : Les cases blanches doivent former un seul bloc connexe
      */
-    private boolean checkConnectedWhiteCells() {
-        boolean[][] visited = new boolean[size][size];
-        int startRow = -1, startCol = -1;
+    boolean checkConnectedWhiteCells() {
+        int start = firstWhiteCell();
+        if (start == -1) {
+            return false;
+        }
+        return floodFill(start, -1) == countWhiteCells();
+    }
+
+    private void collectDuplicates(ValidationReport report) {
+        int[] counts = new int[maxValue + 1];
 
-        // Trouver la première case blanche
-        outerLoop:
         for (int i = 0; i < size; i++) {
             for (int j = 0; j < size; j++) {
-                if (getCell(i, j).isWhite()) {
-                    startRow = i;
-                    startCol = j;
-                    break outerLoop;
+                if (isWhite(i, j)) counts[values[i * size + j]]++;
+            }
+            for (int j = 0; j < size; j++) {
+                if (isWhite(i, j) && counts[values[i * size + j]] > 1) {
+                    report.add(ValidationReport.Violation.DUPLICATE, i, j);
                 }
             }
+            for (int j = 0; j < size; j++) {
+                counts[values[i * size + j]] = 0;
+            }
         }
 
-        if (startRow == -1) {
-            System.out.println("❌ Aucune case blanche trouvée");
-            return false;
+        for (int j = 0; j < size; j++) {
+            for (int i = 0; i < size; i++) {
+                if (isWhite(i, j)) counts[values[i * size + j]]++;
+            }
+            for (int i = 0; i < size; i++) {
+                if (isWhite(i, j) && counts[values[i * size + j]] > 1) {
+                    report.add(ValidationReport.Violation.DUPLICATE, i, j);
+                }
+            }
+            for (int i = 0; i < size; i++) {
+                counts[values[i * size + j]] = 0;
+            }
         }
+    }
 
-        dfs(startRow, startCol, visited);
+    private void collectAdjacentBlacks(ValidationReport report) {
+        for (int line = 0; line < size; line++) {
+            for (int w = 0; w < words; w++) {
+                long pairs = adjacentPairs(rowBits, line, w);
+                while (pairs != 0) {
+                    int col = (w << 6) + Long.numberOfTrailingZeros(pairs);
+                    report.add(ValidationReport.Violation.ADJACENT_BLACKS, line, col);
+                    report.add(ValidationReport.Violation.ADJACENT_BLACKS, line, col + 1);
+                    pairs &= pairs - 1;
+                }
+                pairs = adjacentPairs(colBits, line, w);
+                while (pairs != 0) {
+                    int row = (w << 6) + Long.numberOfTrailingZeros(pairs);
+                    report.add(ValidationReport.Violation.ADJACENT_BLACKS, row, line);
+                    report.add(ValidationReport.Violation.ADJACENT_BLACKS, row + 1, line);
+                    pairs &= pairs - 1;
+                }
+            }
+        }
+    }
 
-        int totalWhite = 0;
-        int visitedWhite = 0;
-        
+    private void collectDisconnectedWhites(ValidationReport report) {
+        int start = firstWhiteCell();
+        if (start == -1) {
+            report.add(ValidationReport.Violation.NO_WHITE_CELL, 0, 0);
+            return;
+        }
+        if (floodFill(start, -1) == countWhiteCells()) {
+            return;
+        }
         for (int i = 0; i < size; i++) {
             for (int j = 0; j < size; j++) {
-                if (getCell(i, j).isWhite()) {
-                    totalWhite++;
-                    if (visited[i][j]) {
-                        visitedWhite++;
-                    } else {
-                        System.out.println("❌ Case blanche non connectée en (" + i + "," + j + ")");
-                    }
+                if (isWhite(i, j) && !wasVisited(i * size + j)) {
+                    report.add(ValidationReport.Violation.DISCONNECTED_WHITE, i, j);
                 }
             }
         }
+    }
 
-        System.out.println("📊 Cases blanches : " + visitedWhite + "/" + totalWhite + " connectées");
-        return totalWhite == visitedWhite;
+    /**
+     * Indice (row * size + col) de la première case blanche, ou -1
+     */
+    int firstWhiteCell() {
+        for (int i = 0; i < size; i++) {
+            int base = i * words;
+            for (int w = 0; w < words; w++) {
+                long white = ~rowBits[base + w];
+                if (w == words - 1 && (size & 63) != 0) {
+                    white &= (1L << (size & 63)) - 1;
+                }
+                if (white != 0) {
+                    return i * size + (w << 6) + Long.numberOfTrailingZeros(white);
+                }
+            }
+        }
+        return -1;
     }
 
-    private void dfs(int row, int col, boolean[][] visited) {
-        if (row < 0 || col < 0 || row >= size || col >= size) {
-            return;
+    /**
+     * Parcours en largeur itératif des cases blanches depuis start, sans
+     * jamais passer par la case excluded (-1 pour aucune). La file et les
+     * marques de visite appartiennent à la grille et sont réutilisées d'un
+     * appel à l'autre : aucune récursion ni allocation après le premier appel.
+     * Retourne le nombre de cases blanches atteintes.
+     */
+    int floodFill(int start, int excluded) {
+        if (floodQueue == null) {
+            floodQueue = new int[size * size];
+            visitStamps = new int[size * size];
+        }
+        if (++floodEpoch == 0) {
+            // Débordement du compteur : on repart de marques propres
+            Arrays.fill(visitStamps, 0);
+            floodEpoch = 1;
         }
 
-        if (visited[row][col] || getCell(row, col).isBlack()) {
-            return;
+        int[] queue = floodQueue;
+        int[] stamps = visitStamps;
+        int epoch = floodEpoch;
+        int head = 0;
+        int tail = 0;
+
+        if (excluded >= 0) {
+            stamps[excluded] = epoch;
         }
+        stamps[start] = epoch;
+        queue[tail++] = start;
 
-        visited[row][col] = true;
+        while (head < tail) {
+            int current = queue[head++];
+            int row = current / size;
+            int col = current - row * size;
+
+            if (row > 0) {
+                int next = current - size;
+                if (stamps[next] != epoch && !isBlack(row - 1, col)) {
+                    stamps[next] = epoch;
+                    queue[tail++] = next;
+                }
+            }
+            if (row < size - 1) {
+                int next = current + size;
+                if (stamps[next] != epoch && !isBlack(row + 1, col)) {
+                    stamps[next] = epoch;
+                    queue[tail++] = next;
+                }
+            }
+            if (col > 0) {
+                int next = current - 1;
+                if (stamps[next] != epoch && !isBlack(row, col - 1)) {
+                    stamps[next] = epoch;
+                    queue[tail++] = next;
+                }
+            }
+            if (col < size - 1) {
+                int next = current + 1;
+                if (stamps[next] != epoch && !isBlack(row, col + 1)) {
+                    stamps[next] = epoch;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return tail;
+    }
 
-        dfs(row - 1, col, visited);
-        dfs(row + 1, col, visited);
-        dfs(row, col - 1, visited);
-        dfs(row, col + 1, visited);
+    /**
+     * Vrai si la case d'indice index a été atteinte par le dernier floodFill
+     */
+    boolean wasVisited(int index) {
+        return visitStamps != null && visitStamps[index] == floodEpoch;
     }
 
     /**
      * Vérifie si un coup est valide avant de le jouer
      */
     public boolean isMoveValid(int row, int col) {
-        Cell cell = getCell(row, col);
-        
-        if (cell.isBlack()) {
+        if (isBlack(row, col)) {
             // Vérifier qu'elle n'est pas adjacente à une autre noire
-            if (row > 0 && getCell(row - 1, col).isBlack()) return false;
-            if (row < size - 1 && getCell(row + 1, col).isBlack()) return false;
-            if (col > 0 && getCell(row, col - 1).isBlack()) return false;
-            if (col < size - 1 && getCell(row, col + 1).isBlack()) return false;
+            if (row > 0 && isBlack(row - 1, col)) return false;
+            if (row < size - 1 && isBlack(row + 1, col)) return false;
+            if (col > 0 && isBlack(row, col - 1)) return false;
+            if (col < size - 1 && isBlack(row, col + 1)) return false;
         }
 
         return true;
@@ -186,15 +540,7 @@ public class Grid {
      * Compte le nombre de cases blanches
      */
     public int countWhiteCells() {
-        int count = 0;
-        for (int i = 0; i < size; i++) {
-            for (int j = 0; j < size; j++) {
-                if (getCell(i, j).isWhite()) {
-                    count++;
-                }
-            }
-        }
-        return count;
+        return size * size - countBlackCells();
     }
 
     /**
@@ -202,12 +548,8 @@ public class Grid {
      */
     public int countBlackCells() {
         int count = 0;
-        for (int i = 0; i < size; i++) {
-            for (int j = 0; j < size; j++) {
-                if (getCell(i, j).isBlack()) {
-                    count++;
-                }
-            }
+        for (long word : rowBits) {
+            count += Long.bitCount(word);
         }
         return count;
     }
@@ -218,11 +560,10 @@ public class Grid {
         sb.append("\n=== État de la grille ===\n");
         for (int i = 0; i < size; i++) {
             for (int j = 0; j < size; j++) {
-                Cell cell = getCell(i, j);
-                if (cell.isBlack()) {
+                if (isBlack(i, j)) {
                     sb.append(" ● ");
                 } else {
-                    sb.append(" ").append(cell.getValue()).append(" ");
+                    sb.append(" ").append(getValue(i, j)).append(" ");
                 }
             }
             sb.append("\n");
@@ -230,4 +571,4 @@ public class Grid {
         sb.append("========================\n");
         return sb.toString();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,137 @@
+package model;
+
+/**
+ * Validateur incrémental des règles Hitori, tenu à jour par le Grid à chaque
+ * changement d'état d'une case.
+ *
+ * Règle 1 : compteurs d'occurrences de chaque valeur parmi les cases blanches,
+ * par ligne et par colonne, plus le nombre total d'occurrences en trop.
+ * Règle 2 : nombre de paires de cases noires adjacentes.
+ * Règle 3 : déléguée à la structure WhiteConnectivity de la grille, qui ne
+ * refait un parcours complet que lorsqu'un coup a pu casser la connexité.
+ */
+public class IncrementalValidator {
+
+    private final Grid grid;
+    private final int size;
+
+    private int stride;
+    private int[] rowCounts;
+    private int[] colCounts;
+    // Somme sur chaque ligne/colonne et chaque valeur de max(0, occurrences - 1)
+    private int duplicateExcess;
+    private int adjacentBlackPairs;
+
+    private boolean stale;
+
+    IncrementalValidator(Grid grid) {
+        this.grid = grid;
+        this.size = grid.getSize();
+        rebuild();
+    }
+
+    /**
+     * Recalcule tous les compteurs depuis la grille (chargement, remise à zéro)
+     */
+    void rebuild() {
+        stride = grid.getMaxValue() + 1;
+        rowCounts = new int[size * stride];
+        colCounts = new int[size * stride];
+        duplicateExcess = 0;
+        adjacentBlackPairs = 0;
+
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                if (grid.isBlack(i, j)) {
+                    if (j + 1 < size && grid.isBlack(i, j + 1)) adjacentBlackPairs++;
+                    if (i + 1 < size && grid.isBlack(i + 1, j)) adjacentBlackPairs++;
+                } else {
+                    int value = grid.getValue(i, j);
+                    if (rowCounts[i * stride + value]++ > 0) duplicateExcess++;
+                    if (colCounts[j * stride + value]++ > 0) duplicateExcess++;
+                }
+            }
+        }
+
+        stale = false;
+    }
+
+    /**
+     * Les valeurs de la grille ont changé : les compteurs seront reconstruits
+     * à la prochaine interrogation
+     */
+    void invalidate() {
+        stale = true;
+    }
+
+    /**
+     * Appelé par le Grid quand la case (row, col) change réellement d'état
+     */
+    void cellChanged(int row, int col, boolean black) {
+        if (stale) {
+            return;
+        }
+
+        int value = grid.getValue(row, col);
+        int neighbours = countBlackNeighbours(row, col);
+
+        if (black) {
+            if (--rowCounts[row * stride + value] > 0) duplicateExcess--;
+            if (--colCounts[col * stride + value] > 0) duplicateExcess--;
+            adjacentBlackPairs += neighbours;
+        } else {
+            if (rowCounts[row * stride + value]++ > 0) duplicateExcess++;
+            if (colCounts[col * stride + value]++ > 0) duplicateExcess++;
+            adjacentBlackPairs -= neighbours;
+        }
+    }
+
+    private int countBlackNeighbours(int row, int col) {
+        int count = 0;
+        if (row > 0 && grid.isBlack(row - 1, col)) count++;
+        if (row < size - 1 && grid.isBlack(row + 1, col)) count++;
+        if (col > 0 && grid.isBlack(row, col - 1)) count++;
+        if (col < size - 1 && grid.isBlack(row, col + 1)) count++;
+        return count;
+    }
+
+    private void ensureFresh() {
+        if (stale) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Règle 1 violée ? (temps constant)
+     */
+    public boolean hasDuplicates() {
+        ensureFresh();
+        return duplicateExcess > 0;
+    }
+
+    /**
+     * Règle 2 violée ? (temps constant)
+     */
+    public boolean hasAdjacentBlacks() {
+        ensureFresh();
+        return adjacentBlackPairs > 0;
+    }
+
+    public boolean isConnectivityDirty() {
+        return grid.getConnectivity().isDirty();
+    }
+
+    /**
+     * Règle 3 : recalculée seulement si un coup a pu casser la connexité
+     */
+    public boolean isWhiteConnected() {
+        return grid.getConnectivity().isWhiteConnected();
+    }
+
+    /**
+     * Vérifie les trois règles ; les règles 1 et 2 sont en O(1)
+     */
+    public boolean isSolved() {
+        return !hasDuplicates() && !hasAdjacentBlacks() && isWhiteConnected();
+    }
+}
@@ -0,0 +1,88 @@
+package model;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Validation fork/join pour les très grandes grilles.
+ *
+ * Les règles 1 et 2 se vérifient ligne par ligne et colonne par colonne de
+ * façon indépendante : les indices de lignes sont découpés récursivement en
+ * tâches, chaque feuille vérifiant la ligne i et la colonne i. Dès qu'une
+ * tâche trouve une violation, un drapeau partagé arrête toutes les autres.
+ * En dessous du seuil, on reste sur le chemin séquentiel de Grid.isValid().
+ */
+public class ParallelValidator {
+
+    // Nombre de cases en dessous duquel le découpage ne vaut pas son coût
+    static final int SEQUENTIAL_THRESHOLD = 1 << 14;
+
+    private static final ParallelValidator DEFAULT = new ParallelValidator(ForkJoinPool.commonPool());
+
+    private final ForkJoinPool pool;
+
+    public ParallelValidator(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public static ParallelValidator getDefault() {
+        return DEFAULT;
+    }
+
+    public boolean isValid(Grid grid) {
+        int size = grid.getSize();
+        if (size * size < SEQUENTIAL_THRESHOLD) {
+            return grid.isValid();
+        }
+
+        AtomicBoolean failed = new AtomicBoolean(false);
+        int grain = Math.max(1, SEQUENTIAL_THRESHOLD / (2 * size));
+        pool.invoke(new LineTask(grid, 0, size, grain, failed));
+
+        // La connexité (règle 3) reste un parcours séquentiel
+        return !failed.get() && grid.checkConnectedWhiteCells();
+    }
+
+    private static final class LineTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        // Tâche jamais sérialisée : la grille n'a pas à l'être
+        private final transient Grid grid;
+        private final int from;
+        private final int to;
+        private final int grain;
+        private final AtomicBoolean failed;
+
+        LineTask(Grid grid, int from, int to, int grain, AtomicBoolean failed) {
+            this.grid = grid;
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+            this.failed = failed;
+        }
+
+        @Override
+        protected void compute() {
+            if (failed.get()) {
+                return;
+            }
+            if (to - from > grain) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new LineTask(grid, from, middle, grain, failed),
+                          new LineTask(grid, middle, to, grain, failed));
+                return;
+            }
+
+            long[] seen = new long[(grid.getMaxValue() >>> 6) + 1];
+            for (int line = from; line < to && !failed.get(); line++) {
+                if (grid.lineHasAdjacentBlacks(line)
+                        || grid.rowHasDuplicate(line, seen)
+                        || grid.columnHasDuplicate(line, seen)) {
+                    failed.set(true);
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -1,12 +1,22 @@
 package model;
 
-public class ScoreEntry {
+public class ScoreEntry implements Comparable<ScoreEntry> {
     private final String playerName;
     private final int score; // par exemple temps en secondes ou points
+    private final String level; // null si inconnu
+    private final int moves;
+    private final long timestamp; // date de la partie, en millisecondes
 
     public ScoreEntry(String playerName, int score) {
+        this(playerName, null, score, 0, System.currentTimeMillis());
+    }
+
+    public ScoreEntry(String playerName, String level, int seconds, int moves, long timestamp) {
         this.playerName = playerName;
-        this.score = score;
+        this.level = level;
+        this.score = seconds;
+        this.moves = moves;
+        this.timestamp = timestamp;
     }
 
     public String getPlayerName() {
@@ -17,6 +27,33 @@ public class ScoreEntry {
         return score;
     }
 
+    public String getLevel() {
+        return level;
+    }
+
+    public int getMoves() {
+        return moves;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Meilleur score en premier : temps le plus court, puis le moins de
+     * coups, puis le plus ancien
+     */
+    @Override
+    public int compareTo(ScoreEntry other) {
+        if (score != other.score) {
+            return Integer.compare(score, other.score);
+        }
+        if (moves != other.moves) {
+            return Integer.compare(moves, other.moves);
+        }
+        return Long.compare(timestamp, other.timestamp);
+    }
+
     @Override
     public String toString() {
         return playerName + " - " + score;
@@ -0,0 +1,130 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Résultat détaillé d'une validation de grille.
+ *
+ * Chaque violation est stockée sous forme compacte : un type (octet) et la
+ * case fautive empaquetée en un int (row * size + col). Aucun texte n'est
+ * construit tant que l'appelant ne demande pas getDescription().
+ */
+public final class ValidationReport {
+
+    public enum Violation {
+        DUPLICATE("Doublons dans une ligne ou une colonne"),
+        ADJACENT_BLACKS("Cases noires adjacentes"),
+        DISCONNECTED_WHITE("Cases blanches non connectées"),
+        NO_WHITE_CELL("Aucune case blanche");
+
+        private final String label;
+
+        Violation(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    private static final Violation[] KINDS = Violation.values();
+
+    private final int size;
+    private byte[] kinds = new byte[8];
+    private int[] cells = new int[8];
+    private int count;
+    private String description;
+
+    ValidationReport(int size) {
+        this.size = size;
+    }
+
+    void add(Violation kind, int row, int col) {
+        if (count == cells.length) {
+            kinds = Arrays.copyOf(kinds, count * 2);
+            cells = Arrays.copyOf(cells, count * 2);
+        }
+        kinds[count] = (byte) kind.ordinal();
+        cells[count] = row * size + col;
+        count++;
+    }
+
+    public boolean isValid() {
+        return count == 0;
+    }
+
+    /**
+     * Nombre de violations (une case peut apparaître plusieurs fois)
+     */
+    public int getViolationCount() {
+        return count;
+    }
+
+    public Violation getKind(int index) {
+        return KINDS[kinds[index]];
+    }
+
+    /**
+     * Case fautive empaquetée : row * size + col
+     */
+    public int getPackedCell(int index) {
+        return cells[index];
+    }
+
+    public int getRow(int index) {
+        return cells[index] / size;
+    }
+
+    public int getCol(int index) {
+        return cells[index] % size;
+    }
+
+    public boolean has(Violation kind) {
+        for (int i = 0; i < count; i++) {
+            if (kinds[i] == kind.ordinal()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Texte lisible, construit au premier appel seulement
+     */
+    public String getDescription() {
+        if (description == null) {
+            description = buildDescription();
+        }
+        return description;
+    }
+
+    private String buildDescription() {
+        if (count == 0) {
+            return "✅ La grille respecte toutes les règles";
+        }
+
+        int[] perKind = new int[KINDS.length];
+        for (int i = 0; i < count; i++) {
+            perKind[kinds[i]]++;
+        }
+
+        StringBuilder sb = new StringBuilder("❌ La grille contient des erreurs :");
+        for (Violation kind : KINDS) {
+            int n = perKind[kind.ordinal()];
+            if (n == 0) {
+                continue;
+            }
+            sb.append("\n• ").append(kind.getLabel());
+            if (kind != Violation.NO_WHITE_CELL) {
+                sb.append(" (").append(n).append(n > 1 ? " cases)" : " case)");
+            }
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return getDescription();
+    }
+}
@@ -0,0 +1,221 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Suivi dynamique de la connexité des cases blanches (règle 3).
+ *
+ * Union-find sur les cases blanches : blanchir une case fusionne ses voisines
+ * en temps quasi constant. Noircir une case est traité localement quand ses
+ * voisines blanches restent reliées autour d'elle (anneau des 8 voisines) ;
+ * sinon la structure est marquée sale et reconstruite à la prochaine
+ * interrogation, ce qui amortit le coût des suppressions.
+ */
+public class WhiteConnectivity {
+
+    // Voisines dans l'ordre de l'anneau : N, NE, E, SE, S, SO, O, NO
+    private static final int[] RING_DR = {-1, -1, 0, 1, 1, 1, 0, -1};
+    private static final int[] RING_DC = {0, 1, 1, 1, 0, -1, -1, -1};
+
+    private final Grid grid;
+    private final int size;
+    private final int[] parent;
+    private final byte[] rank;
+    // Cases noircies sans reconstruction : elles restent dans l'ensemble
+    // de leurs anciennes voisines et ne peuvent pas être fusionnées telles quelles
+    private final long[] ghosts;
+
+    private int whites;
+    private int components;
+    private boolean dirty;
+
+    WhiteConnectivity(Grid grid) {
+        this.grid = grid;
+        this.size = grid.getSize();
+        this.parent = new int[size * size];
+        this.rank = new byte[size * size];
+        this.ghosts = new long[(size * size + 63) >>> 6];
+        rebuild();
+    }
+
+    /**
+     * Reconstruit l'union-find depuis l'état courant de la grille
+     */
+    void rebuild() {
+        Arrays.fill(rank, (byte) 0);
+        Arrays.fill(ghosts, 0L);
+        whites = 0;
+        components = 0;
+
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                int index = i * size + j;
+                parent[index] = index;
+                if (grid.isBlack(i, j)) {
+                    continue;
+                }
+                whites++;
+                components++;
+                if (j > 0 && grid.isWhite(i, j - 1) && union(index, index - 1)) components--;
+                if (i > 0 && grid.isWhite(i - 1, j) && union(index, index - size)) components--;
+            }
+        }
+        dirty = false;
+    }
+
+    /**
+     * Appelé par le Grid quand la case (row, col) change réellement d'état
+     */
+    void cellChanged(int row, int col, boolean black) {
+        int index = row * size + col;
+        whites += black ? -1 : 1;
+        if (dirty) {
+            return;
+        }
+
+        if (black) {
+            int orthogonal = countWhiteNeighbours(row, col);
+            if (orthogonal == 0) {
+                components--;
+            } else if (!isLocallySafe(row, col)) {
+                dirty = true;
+                return;
+            }
+            ghosts[index >>> 6] |= 1L << index;
+        } else {
+            if ((ghosts[index >>> 6] & (1L << index)) != 0) {
+                // Une case fantôme appartient encore à un ancien bloc
+                dirty = true;
+                return;
+            }
+            components++;
+            if (row > 0 && grid.isWhite(row - 1, col) && union(index, index - size)) components--;
+            if (row < size - 1 && grid.isWhite(row + 1, col) && union(index, index + size)) components--;
+            if (col > 0 && grid.isWhite(row, col - 1) && union(index, index - 1)) components--;
+            if (col < size - 1 && grid.isWhite(row, col + 1) && union(index, index + 1)) components--;
+        }
+    }
+
+    /**
+     * Vrai si les cases blanches forment un seul bloc
+     */
+    public boolean isWhiteConnected() {
+        if (dirty) {
+            rebuild();
+        }
+        return whites > 0 && components == 1;
+    }
+
+    /**
+     * Nombre de blocs blancs distincts
+     */
+    public int getComponentCount() {
+        if (dirty) {
+            rebuild();
+        }
+        return components;
+    }
+
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    /**
+     * Vrai si noircir la case (row, col) séparerait ses voisines blanches
+     * en plusieurs blocs. Le test local suffit dans la plupart des cas ;
+     * sinon un parcours limité vérifie que les voisines restent reliées.
+     */
+    public boolean wouldDisconnect(int row, int col) {
+        if (grid.isBlack(row, col) || countWhiteNeighbours(row, col) <= 1 || isLocallySafe(row, col)) {
+            return false;
+        }
+        return !neighboursStayConnected(row, col);
+    }
+
+    /**
+     * Test de l'anneau : les voisines blanches orthogonales de la case sont
+     * reliées entre elles par les cases diagonales blanches qui les séparent
+     */
+    private boolean isLocallySafe(int row, int col) {
+        int white = 0;
+        for (int k = 0; k < 8; k++) {
+            int r = row + RING_DR[k];
+            int c = col + RING_DC[k];
+            if (r >= 0 && c >= 0 && r < size && c < size && grid.isWhite(r, c)) {
+                white |= 1 << k;
+            }
+        }
+
+        int orthogonal = 0;
+        int links = 0;
+        for (int k = 0; k < 8; k += 2) {
+            if ((white & (1 << k)) == 0) {
+                continue;
+            }
+            orthogonal++;
+            int next = (k + 2) & 7;
+            if ((white & (1 << (k + 1))) != 0 && (white & (1 << next)) != 0) {
+                links++;
+            }
+        }
+        return orthogonal - links <= 1;
+    }
+
+    private int countWhiteNeighbours(int row, int col) {
+        int count = 0;
+        if (row > 0 && grid.isWhite(row - 1, col)) count++;
+        if (row < size - 1 && grid.isWhite(row + 1, col)) count++;
+        if (col > 0 && grid.isWhite(row, col - 1)) count++;
+        if (col < size - 1 && grid.isWhite(row, col + 1)) count++;
+        return count;
+    }
+
+    /**
+     * Parcours des blanches depuis une voisine, en excluant la case (row, col),
+     * puis vérification que toutes ses autres voisines blanches ont été atteintes
+     */
+    private boolean neighboursStayConnected(int row, int col) {
+        int excluded = row * size + col;
+        int start;
+        if (row > 0 && grid.isWhite(row - 1, col)) start = excluded - size;
+        else if (row < size - 1 && grid.isWhite(row + 1, col)) start = excluded + size;
+        else if (col > 0 && grid.isWhite(row, col - 1)) start = excluded - 1;
+        else start = excluded + 1;
+
+        grid.floodFill(start, excluded);
+
+        if (row > 0 && grid.isWhite(row - 1, col) && !grid.wasVisited(excluded - size)) return false;
+        if (row < size - 1 && grid.isWhite(row + 1, col) && !grid.wasVisited(excluded + size)) return false;
+        if (col > 0 && grid.isWhite(row, col - 1) && !grid.wasVisited(excluded - 1)) return false;
+        if (col < size - 1 && grid.isWhite(row, col + 1) && !grid.wasVisited(excluded + 1)) return false;
+        return true;
+    }
+
+    private int find(int x) {
+        while (parent[x] != x) {
+            parent[x] = parent[parent[x]];
+            x = parent[x];
+        }
+        return x;
+    }
+
+    /**
+     * Fusionne les ensembles de a et b ; faux s'ils étaient déjà réunis
+     */
+    private boolean union(int a, int b) {
+        int ra = find(a);
+        int rb = find(b);
+        if (ra == rb) {
+            return false;
+        }
+        if (rank[ra] < rank[rb]) {
+            parent[ra] = rb;
+        } else if (rank[ra] > rank[rb]) {
+            parent[rb] = ra;
+        } else {
+            parent[rb] = ra;
+            rank[ra]++;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,366 @@
+package server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import controller.HitoriGame;
+import exception.InvalidMoveException;
+import model.Grid;
+import util.BackgroundTasks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Mode serveur sans interface : les parties sont jouées par HTTP local
+ * (front web, robots), avec la même logique que le jeu (HitoriGame, Grid).
+ *
+ * Chaque requête est traitée sur un thread virtuel ; les parties vivent dans
+ * une table concurrente, et les requêtes d'une même partie passent l'une
+ * après l'autre. Réponses en JSON :
+ *
+ *   POST   /puzzle?level=easy              nouvelle partie (session, niveau, chiffres)
+ *   GET    /puzzle?session=ID              état de la partie (chiffres, cases noires)
+ *   DELETE /puzzle?session=ID              fin de la partie
+ *   POST   /move?session=ID&row=R&col=C    noircir ou blanchir une case
+ *   GET    /won?session=ID                 grille résolue ou non
+ *   GET    /stats                          parties ouvertes, requêtes servies et débit
+ *
+ * Une partie sans requête depuis idleTimeout est fermée (client parti sans
+ * DELETE), et au-delà de maxSessions parties ouvertes, les nouvelles sont
+ * refusées (503) : un client ne peut pas faire grossir la mémoire sans fin.
+ */
+public class HitoriServer {
+
+    public static final int DEFAULT_PORT = 8080;
+    public static final int DEFAULT_MAX_SESSIONS = 10_000;
+    public static final long DEFAULT_IDLE_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(30);
+
+    private final HttpServer http;
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final int maxSessions;
+    private final long idleTimeoutNanos;
+    // Parties ouvertes, tenu à jour à chaque ajout ou retrait pour un plafond strict
+    private final AtomicInteger openSessions = new AtomicInteger();
+    // Prochain balayage des parties inactives
+    private final AtomicLong nextSweep = new AtomicLong(System.nanoTime());
+    // Compteurs répartis : pas de point de contention entre les requêtes
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder moves = new LongAdder();
+    private final LongAdder wins = new LongAdder();
+    private final long startNanos = System.nanoTime();
+
+    /**
+     * Partie d'un client ; ses requêtes se synchronisent sur elle
+     */
+    private static final class Session {
+        private final HitoriGame game = new HitoriGame();
+        private int moveCount;
+        private volatile long lastAccess = System.nanoTime();
+    }
+
+    /**
+     * Réponse d'erreur, avec le statut HTTP à renvoyer
+     */
+    private static final class RequestException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        private final int status;
+
+        private RequestException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    private interface Handler {
+        String handle(String method, Map<String, String> query) throws RequestException;
+    }
+
+    /**
+     * Serveur sur l'interface locale ; port 0 pour un port libre quelconque
+     */
+    public HitoriServer(int port) throws IOException {
+        this(port, DEFAULT_MAX_SESSIONS, DEFAULT_IDLE_TIMEOUT_MILLIS);
+    }
+
+    public HitoriServer(int port, int maxSessions, long idleTimeoutMillis) throws IOException {
+        this.maxSessions = maxSessions;
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+        http = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        http.setExecutor(BackgroundTasks.executor());
+        route("/puzzle", this::puzzle);
+        route("/move", this::move);
+        route("/won", this::won);
+        route("/stats", this::stats);
+    }
+
+    public void start() {
+        http.start();
+    }
+
+    /**
+     * Arrête le serveur en laissant une seconde aux requêtes en cours
+     */
+    public void stop() {
+        http.stop(1);
+    }
+
+    public int getPort() {
+        return http.getAddress().getPort();
+    }
+
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    private void route(String path, Handler handler) {
+        http.createContext(path, exchange -> {
+            requests.increment();
+            int status = 200;
+            String body;
+            try {
+                if (!exchange.getRequestURI().getPath().equals(path)) {
+                    throw new RequestException(404, "Adresse inconnue");
+                }
+                body = handler.handle(exchange.getRequestMethod(), parseQuery(exchange.getRequestURI().getRawQuery()));
+            } catch (RequestException e) {
+                status = e.status;
+                body = "{\"error\":" + quote(e.getMessage()) + "}";
+            } catch (RuntimeException e) {
+                status = 500;
+                body = "{\"error\":" + quote(String.valueOf(e.getMessage())) + "}";
+            }
+            send(exchange, status, body);
+        });
+    }
+
+    private String puzzle(String method, Map<String, String> query) throws RequestException {
+        switch (method) {
+            case "POST": {
+                String level = query.getOrDefault("level", "easy");
+                sweepIdleSessions();
+                if (openSessions.incrementAndGet() > maxSessions) {
+                    openSessions.decrementAndGet();
+                    throw new RequestException(503, "Trop de parties ouvertes (" + maxSessions + "), réessayez plus tard");
+                }
+                Session session = new Session();
+                try {
+                    session.game.loadGrid(level);
+                } catch (Exception e) {
+                    openSessions.decrementAndGet();
+                    throw new RequestException(404, "Niveau introuvable : " + level);
+                }
+                String id = UUID.randomUUID().toString();
+                sessions.put(id, session);
+                return "{\"session\":" + quote(id) + ",\"level\":" + quote(level) + "," + gridJson(session) + "}";
+            }
+            case "GET": {
+                Session session = session(query);
+                synchronized (session) {
+                    return "{\"level\":" + quote(session.game.getLevel()) + ",\"moves\":" + session.moveCount
+                        + "," + gridJson(session) + "}";
+                }
+            }
+            case "DELETE":
+                if (!close(require(query, "session"))) {
+                    throw new RequestException(404, "Partie inconnue");
+                }
+                return "{\"closed\":true}";
+            default:
+                throw new RequestException(405, "Méthode non prise en charge : " + method);
+        }
+    }
+
+    private String move(String method, Map<String, String> query) throws RequestException {
+        expect("POST", method);
+        Session session = session(query);
+        int row = number(query, "row");
+        int col = number(query, "col");
+        synchronized (session) {
+            Grid grid = session.game.getGrid();
+            if (row < 0 || col < 0 || row >= grid.getSize() || col >= grid.getSize()) {
+                throw new RequestException(400, "Case hors de la grille : " + row + ", " + col);
+            }
+            try {
+                session.game.toggleCell(row, col);
+            } catch (InvalidMoveException e) {
+                throw new RequestException(409, e.getMessage());
+            }
+            session.moveCount++;
+            moves.increment();
+            boolean won = session.game.isGameWon();
+            if (won) {
+                wins.increment();
+            }
+            return "{\"black\":" + grid.isBlack(row, col) + ",\"moves\":" + session.moveCount
+                + ",\"won\":" + won + "}";
+        }
+    }
+
+    private String won(String method, Map<String, String> query) throws RequestException {
+        expect("GET", method);
+        Session session = session(query);
+        synchronized (session) {
+            return "{\"won\":" + session.game.isGameWon() + "}";
+        }
+    }
+
+    private String stats(String method, Map<String, String> query) throws RequestException {
+        expect("GET", method);
+        double seconds = Math.max(1e-9, (System.nanoTime() - startNanos) / (double) TimeUnit.SECONDS.toNanos(1));
+        long served = requests.sum();
+        return String.format(Locale.ROOT,
+            "{\"sessions\":%d,\"requests\":%d,\"moves\":%d,\"wins\":%d,\"uptimeSeconds\":%.1f,\"requestsPerSecond\":%.1f}",
+            sessions.size(), served, moves.sum(), wins.sum(), seconds, served / seconds);
+    }
+
+    private Session session(Map<String, String> query) throws RequestException {
+        String id = require(query, "session");
+        Session session = sessions.get(id);
+        if (session == null) {
+            throw new RequestException(404, "Partie inconnue");
+        }
+        long now = System.nanoTime();
+        if (now - session.lastAccess > idleTimeoutNanos) {
+            close(id);
+            throw new RequestException(404, "Partie expirée");
+        }
+        session.lastAccess = now;
+        return session;
+    }
+
+    private boolean close(String id) {
+        if (sessions.remove(id) == null) {
+            return false;
+        }
+        openSessions.decrementAndGet();
+        return true;
+    }
+
+    /**
+     * Ferme les parties inactives ; au plus un balayage par dixième du délai
+     * d'inactivité, fait par la requête qui en prend la charge
+     */
+    private void sweepIdleSessions() {
+        long now = System.nanoTime();
+        long next = nextSweep.get();
+        if (now - next < 0 || !nextSweep.compareAndSet(next, now + idleTimeoutNanos / 10)) {
+            return;
+        }
+        for (Map.Entry<String, Session> entry : sessions.entrySet()) {
+            if (now - entry.getValue().lastAccess > idleTimeoutNanos) {
+                close(entry.getKey());
+            }
+        }
+    }
+
+    private static void expect(String expected, String method) throws RequestException {
+        if (!expected.equals(method)) {
+            throw new RequestException(405, "Méthode non prise en charge : " + method);
+        }
+    }
+
+    private static String require(Map<String, String> query, String name) throws RequestException {
+        String value = query.get(name);
+        if (value == null) {
+            throw new RequestException(400, "Paramètre manquant : " + name);
+        }
+        return value;
+    }
+
+    private static int number(Map<String, String> query, String name) throws RequestException {
+        try {
+            return Integer.parseInt(require(query, name));
+        } catch (NumberFormatException e) {
+            throw new RequestException(400, "Paramètre non numérique : " + name);
+        }
+    }
+
+    /**
+     * Taille, chiffres et cases noires, ligne par ligne
+     */
+    private static String gridJson(Session session) {
+        Grid grid = session.game.getGrid();
+        int size = grid.getSize();
+        StringBuilder values = new StringBuilder("[");
+        StringBuilder black = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            values.append(i == 0 ? "[" : ",[");
+            black.append(i == 0 ? "[" : ",[");
+            for (int j = 0; j < size; j++) {
+                if (j > 0) {
+                    values.append(',');
+                    black.append(',');
+                }
+                values.append(grid.getValue(i, j));
+                black.append(grid.isBlack(i, j));
+            }
+            values.append(']');
+            black.append(']');
+        }
+        return "\"size\":" + size + ",\"values\":" + values + "],\"black\":" + black + "]";
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int equals = pair.indexOf('=');
+            String name = equals < 0 ? pair : pair.substring(0, equals);
+            String value = equals < 0 ? "" : pair.substring(equals + 1);
+            query.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return query;
+    }
+
+    private static String quote(String text) {
+        if (text == null) {
+            return "null";
+        }
+        StringBuilder quoted = new StringBuilder("\"");
+        for (char c : text.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c < 0x20) {
+                quoted.append(String.format("\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Lance le serveur ; le programme tourne jusqu'à son arrêt (Ctrl+C)
+     */
+    public static void run(int port) throws IOException {
+        HitoriServer server = new HitoriServer(port);
+        server.start();
+        System.err.println("🌐 Serveur Hitori sur http://localhost:" + server.getPort() + "/");
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+    }
+}
@@ -0,0 +1,27 @@
+package solver;
+
+/**
+ * Règles de déduction appliquées par le solveur. Chaque case fixée pendant
+ * la propagation garde la règle qui l'a forcée, ce qui sert aussi aux indices.
+ */
+public enum Deduction {
+    UNIQUE("Chiffre unique dans sa ligne et sa colonne : il peut rester blanc"),
+    SANDWICH("Case entre deux chiffres identiques : elle reste blanche"),
+    PAIR("Paire de chiffres identiques adjacents : les autres exemplaires sont noirs"),
+    CORNER("Coin entouré de son propre chiffre : il doit être noirci"),
+    BLACK_NEIGHBOUR("Voisine d'une case noire : elle reste blanche"),
+    WHITE_DUPLICATE("Même chiffre qu'une case blanche de sa ligne ou colonne : elle est noire"),
+    CONNECTIVITY("La noircir couperait les cases blanches en deux : elle reste blanche"),
+    GUESS("Hypothèse de la recherche"),
+    PLAYER("Case noircie par le joueur");
+
+    private final String description;
+
+    Deduction(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
@@ -0,0 +1,67 @@
+package solver;
+
+/**
+ * Indice proposé au joueur : une case, l'état qu'elle doit prendre et la
+ * raison (règle de déduction, erreur du joueur, ou recours à la solution).
+ */
+public final class Hint {
+
+    public enum Kind { FORCED, MISTAKE, FROM_SOLUTION }
+
+    private final Kind kind;
+    private final int row;
+    private final int col;
+    private final boolean black;
+    private final Deduction rule;
+
+    Hint(Kind kind, int row, int col, boolean black, Deduction rule) {
+        this.kind = kind;
+        this.row = row;
+        this.col = col;
+        this.black = black;
+        this.rule = rule;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public int getRow() {
+        return row;
+    }
+
+    public int getCol() {
+        return col;
+    }
+
+    /**
+     * État attendu pour la case : noire (true) ou blanche (false)
+     */
+    public boolean isBlack() {
+        return black;
+    }
+
+    /**
+     * Règle qui force le coup (null pour une erreur ou un coup tiré de la solution)
+     */
+    public Deduction getRule() {
+        return rule;
+    }
+
+    public String getDescription() {
+        String cell = "(" + (row + 1) + ", " + (col + 1) + ")";
+        switch (kind) {
+            case MISTAKE:
+                return "La case " + cell + " ne devrait pas être noire.";
+            case FROM_SOLUTION:
+                return "Noircissez la case " + cell + ".";
+            default:
+                return (black ? "Noircissez la case " : "Laissez blanche la case ") + cell + " :\n" + rule.getDescription();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getDescription();
+    }
+}
@@ -0,0 +1,218 @@
+package solver;
+
+import model.Grid;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Moteur d'indices incrémental.
+ *
+ * Il garde un état de déduction dans lequel les cases noircies par le joueur
+ * sont des hypothèses, propagées jusqu'au point fixe. D'un indice à l'autre,
+ * les nouvelles cases noires du joueur sont simplement ajoutées et propagées ;
+ * seules les cases qu'il a reblanchies obligent à repartir de l'état de base
+ * (déductions statiques, calculées une seule fois). Les faits déjà dérivés
+ * restent donc en cache tant que le joueur ne revient pas sur un coup, et
+ * l'indice d'un état déjà rencontré est retrouvé par son empreinte de Zobrist.
+ *
+ * La solution complète, nécessaire aux erreurs et aux impasses, est calculée
+ * ailleurs (en arrière-plan) : tant qu'elle n'est pas prête, seuls les
+ * indices déduits sont proposés, et ils ne sont pas mis en cache.
+ */
+public class HintEngine {
+
+    // Valeurs réservées de la table des indices (les indices codés sont positifs)
+    private static final long NOT_CACHED = -1L;
+    private static final long NO_HINT = -2L;
+
+    private final Puzzle puzzle;
+    private final int size;
+    // État après les seules déductions statiques (null si la grille est impossible)
+    private final SolverState base;
+    private SolverState state;
+    private boolean consistent;
+    // Cases noires du joueur déjà intégrées à l'état
+    private final long[] applied;
+    // Solution complète, fournie par le calcul en arrière-plan
+    private final CompletableFuture<SolveResult> solution;
+    // Vrai si l'indice en cours a été calculé sans la solution, pas encore prête
+    private boolean provisional;
+    // Indices déjà calculés, par empreinte de l'état noir/blanc du joueur
+    private final TranspositionTable hints = new TranspositionTable(1 << 10);
+
+    /**
+     * @param solution résolution de la grille, en cours ou terminée
+     */
+    public HintEngine(Grid grid, CompletableFuture<SolveResult> solution) {
+        this.solution = solution;
+        this.puzzle = new Puzzle(grid);
+        this.size = puzzle.size;
+        this.applied = new long[(puzzle.cells + 63) >>> 6];
+        SolverState initial = new SolverState(puzzle);
+        this.base = initial.applyStaticDeductions(true) ? initial : null;
+        reset();
+    }
+
+    private void reset() {
+        Arrays.fill(applied, 0L);
+        state = base == null ? null : base.copy();
+        consistent = base != null;
+    }
+
+    /**
+     * Prochain indice pour l'état actuel du joueur, ou null s'il n'y a plus
+     * rien à suggérer (grille résolue ou sans solution) ou si la solution
+     * nécessaire n'est pas encore calculée. Ne bloque jamais.
+     */
+    public Hint nextHint(Grid current) {
+        long hash = current.getStateHash();
+        long packed = hints.get(hash, NOT_CACHED);
+        if (packed != NOT_CACHED) {
+            return unpack(packed);
+        }
+        provisional = false;
+        Hint hint = computeHint(current);
+        if (!provisional) {
+            hints.put(hash, pack(hint));
+        }
+        return hint;
+    }
+
+    /**
+     * Indice sur un long positif : case (bits 0-31), type (32-39),
+     * règle + 1 (40-47) et état attendu (bit 48)
+     */
+    private long pack(Hint hint) {
+        if (hint == null) {
+            return NO_HINT;
+        }
+        long rule = hint.getRule() == null ? 0 : hint.getRule().ordinal() + 1;
+        return (hint.getRow() * size + hint.getCol())
+            | (long) hint.getKind().ordinal() << 32
+            | rule << 40
+            | (hint.isBlack() ? 1L << 48 : 0L);
+    }
+
+    private Hint unpack(long packed) {
+        if (packed == NO_HINT) {
+            return null;
+        }
+        int index = (int) packed;
+        int rule = (int) (packed >>> 40) & 0xFF;
+        return new Hint(
+            Hint.Kind.values()[(int) (packed >>> 32) & 0xFF],
+            index / size,
+            index % size,
+            (packed & (1L << 48)) != 0,
+            rule == 0 ? null : Deduction.values()[rule - 1]
+        );
+    }
+
+    private Hint computeHint(Grid current) {
+        synchronize(current);
+
+        // Une erreur du joueur passe avant tout : les déductions en découleraient
+        Hint mistake = findMistake(current);
+        if (mistake != null || !consistent) {
+            return mistake;
+        }
+
+        // Fait dérivé le plus ancien que le joueur n'a pas encore joué
+        for (int position = 0; position < state.trailSize(); position++) {
+            int index = state.trailAt(position);
+            if (state.get(index) == SolverState.BLACK && !current.isBlack(index / size, index % size)) {
+                return new Hint(Hint.Kind.FORCED, index / size, index % size, true, state.reason(index));
+            }
+        }
+
+        // Les déductions ne suffisent plus : on s'appuie sur la solution
+        long[] solved = solution();
+        if (solved == null) {
+            return null;
+        }
+        for (int index = 0; index < puzzle.cells; index++) {
+            boolean black = (solved[index >>> 6] & (1L << index)) != 0;
+            if (black && !current.isBlack(index / size, index % size)) {
+                return new Hint(Hint.Kind.FROM_SOLUTION, index / size, index % size, true, null);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Met l'état de déduction en phase avec les cases noires du joueur :
+     * ajout incrémental des nouvelles, reconstruction si l'une a été retirée
+     */
+    private void synchronize(Grid current) {
+        if (base == null) {
+            return;
+        }
+        for (int w = 0; w < applied.length; w++) {
+            long removed = applied[w] & ~playerWord(current, w);
+            if (removed != 0) {
+                reset();
+                break;
+            }
+        }
+
+        for (int w = 0; w < applied.length; w++) {
+            long added = playerWord(current, w) & ~applied[w];
+            while (added != 0) {
+                int index = (w << 6) + Long.numberOfTrailingZeros(added);
+                added &= added - 1;
+                applied[w] |= 1L << index;
+                if (consistent && !state.assign(index, SolverState.BLACK, Deduction.PLAYER)) {
+                    consistent = false;
+                }
+            }
+        }
+        if (consistent && !state.propagate()) {
+            consistent = false;
+        }
+    }
+
+    private long playerWord(Grid current, int w) {
+        long word = 0;
+        int end = Math.min(puzzle.cells, (w + 1) << 6);
+        for (int index = w << 6; index < end; index++) {
+            if (current.isBlack(index / size, index % size)) {
+                word |= 1L << index;
+            }
+        }
+        return word;
+    }
+
+    /**
+     * Première case noircie par le joueur qui est blanche dans la solution
+     */
+    private Hint findMistake(Grid current) {
+        long[] solved = solution();
+        if (solved == null) {
+            return null;
+        }
+        for (int index = 0; index < puzzle.cells; index++) {
+            boolean black = (solved[index >>> 6] & (1L << index)) != 0;
+            if (!black && current.isBlack(index / size, index % size)) {
+                return new Hint(Hint.Kind.MISTAKE, index / size, index % size, false, null);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Cases noires de la solution, ou null si la grille n'en a pas ou si
+     * le calcul n'est pas terminé (l'indice est alors provisoire)
+     */
+    private long[] solution() {
+        if (!solution.isDone()) {
+            provisional = true;
+            return null;
+        }
+        if (solution.isCompletedExceptionally()) {
+            return null;
+        }
+        SolveResult result = solution.join();
+        return result.isSolved() ? result.getBlackMask() : null;
+    }
+}
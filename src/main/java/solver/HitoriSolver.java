@@ -0,0 +1,165 @@
+package solver;
+
+import model.Grid;
+
+import java.util.Arrays;
+
+/**
+ * Solveur Hitori : propagation de contraintes jusqu'au point fixe
+ * (sandwich, paires, coins, voisines des noires, doublons des blanches,
+ * points d'articulation de la connexité), puis recherche en profondeur
+ * sur la case inconnue la plus contrainte, en essayant le noir d'abord.
+ *
+ * Les retours en arrière annulent les affectations via la pile de l'état,
+ * sans jamais recopier la grille.
+ */
+public class HitoriSolver {
+
+    private long nodes;
+    private int solutionCount;
+
+    /**
+     * Cherche une solution pour les chiffres de la grille (son état noir/blanc
+     * actuel est ignoré et n'est pas modifié)
+     */
+    public SolveResult solve(Grid grid) {
+        long start = System.nanoTime();
+        nodes = 0;
+        SolverState state = new SolverState(new Puzzle(grid));
+
+        boolean solved = state.applyStaticDeductions(true) && search(state);
+
+        return new SolveResult(
+            solved ? SolveResult.Status.SOLVED : SolveResult.Status.NO_SOLUTION,
+            grid.getSize(),
+            solved ? state.blackMask() : null,
+            nodes,
+            System.nanoTime() - start
+        );
+    }
+
+    /**
+     * Résout et laisse la grille dans l'état solution ; faux si impossible
+     */
+    public boolean solveInPlace(Grid grid) {
+        SolveResult result = solve(grid);
+        if (result.isSolved()) {
+            result.applyTo(grid);
+        }
+        return result.isSolved();
+    }
+
+    /**
+     * Compte les solutions des chiffres de la grille en s'arrêtant dès que
+     * limit solutions ont été trouvées (2 suffit pour tester l'unicité).
+     * Toutes les branches partagent le même état, restauré par sa pile.
+     */
+    public int countSolutions(Grid grid, int limit) {
+        nodes = 0;
+        solutionCount = 0;
+        SolverState state = new SolverState(new Puzzle(grid));
+        // Pas d'hypothèse « chiffre unique = blanc » : elle éliminerait des solutions
+        if (state.applyStaticDeductions(false)) {
+            count(state, limit);
+        }
+        return solutionCount;
+    }
+
+    /**
+     * Vrai si la grille a exactement une solution
+     */
+    public boolean hasUniqueSolution(Grid grid) {
+        return countSolutions(grid, 2) == 1;
+    }
+
+    /**
+     * Cherche une solution dont les cases noires diffèrent de excluded
+     * (masque d'un bit par case) ; null si excluded est la seule solution
+     */
+    public long[] findOtherSolution(Grid grid, long[] excluded) {
+        nodes = 0;
+        SolverState state = new SolverState(new Puzzle(grid));
+        if (!state.applyStaticDeductions(false)) {
+            return null;
+        }
+        return findOther(state, excluded);
+    }
+
+    private long[] findOther(SolverState state, long[] excluded) {
+        nodes++;
+        if (!state.propagate()) {
+            return null;
+        }
+
+        int cell = state.chooseBranchCell();
+        if (cell < 0) {
+            long[] mask = state.blackMask();
+            return Arrays.equals(mask, excluded) ? null : mask;
+        }
+
+        int mark = state.mark();
+        long[] found = null;
+        if (state.assign(cell, SolverState.BLACK, Deduction.GUESS)) {
+            found = findOther(state, excluded);
+        }
+        state.undo(mark);
+        if (found == null && state.assign(cell, SolverState.WHITE, Deduction.GUESS)) {
+            found = findOther(state, excluded);
+        }
+        state.undo(mark);
+        return found;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    private void count(SolverState state, int limit) {
+        nodes++;
+        if (!state.propagate()) {
+            return;
+        }
+
+        int cell = state.chooseBranchCell();
+        if (cell < 0) {
+            solutionCount++;
+            return;
+        }
+
+        int mark = state.mark();
+        if (state.assign(cell, SolverState.BLACK, Deduction.GUESS)) {
+            count(state, limit);
+        }
+        state.undo(mark);
+        if (solutionCount < limit && state.assign(cell, SolverState.WHITE, Deduction.GUESS)) {
+            count(state, limit);
+        }
+        state.undo(mark);
+    }
+
+    private boolean search(SolverState state) {
+        nodes++;
+        if (!state.propagate()) {
+            return false;
+        }
+        if (state.whitenFreeCells() && !state.propagate()) {
+            return false;
+        }
+
+        int cell = state.chooseBranchCell();
+        if (cell < 0) {
+            return true;
+        }
+
+        int mark = state.mark();
+        if (state.assign(cell, SolverState.BLACK, Deduction.GUESS) && search(state)) {
+            return true;
+        }
+        state.undo(mark);
+        if (state.assign(cell, SolverState.WHITE, Deduction.GUESS) && search(state)) {
+            return true;
+        }
+        state.undo(mark);
+        return false;
+    }
+}
@@ -0,0 +1,147 @@
+package solver;
+
+import model.Grid;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Résolution multi-cœur : même propagation et même heuristique que
+ * HitoriSolver, mais l'arbre de recherche est découpé en sous-problèmes
+ * confiés à un ForkJoinPool (vol de travail).
+ *
+ * À chaque branchement, si la file locale du thread est presque vide, la
+ * branche « blanche » est copiée et publiée comme nouvelle tâche pendant que
+ * le thread poursuit la branche « noire ». La première solution trouvée
+ * arrête toutes les tâches.
+ */
+public class ParallelSolver {
+
+    // Au-delà de ce nombre de tâches en attente, on ne découpe plus
+    private static final int SURPLUS_LIMIT = 3;
+    // Sous-problèmes trop petits pour valoir une copie d'état
+    private static final int MIN_UNKNOWN_TO_SPLIT = 16;
+
+    private final int threads;
+
+    public ParallelSolver() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public ParallelSolver(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Nombre de threads invalide : " + threads);
+        }
+        this.threads = threads;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Résout la grille et la laisse dans l'état solution si elle en a une
+     */
+    public SolveResult solve(Grid grid) {
+        long start = System.nanoTime();
+        SolverState root = new SolverState(new Puzzle(grid));
+        AtomicReference<long[]> solution = new AtomicReference<>();
+        LongAdder nodes = new LongAdder();
+
+        if (root.applyStaticDeductions(true)) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                pool.invoke(new SearchTask(root, solution, nodes));
+            } finally {
+                pool.shutdown();
+            }
+        }
+
+        long[] mask = solution.get();
+        SolveResult result = new SolveResult(
+            mask != null ? SolveResult.Status.SOLVED : SolveResult.Status.NO_SOLUTION,
+            grid.getSize(),
+            mask,
+            nodes.sum(),
+            System.nanoTime() - start
+        );
+        if (result.isSolved()) {
+            result.applyTo(grid);
+        }
+        return result;
+    }
+
+    private static final class SearchTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        // Tâche jamais sérialisée : l'état de recherche n'a pas à l'être
+        private final transient SolverState state;
+        private final AtomicReference<long[]> solution;
+        private final LongAdder nodes;
+        private final List<SearchTask> forked = new ArrayList<>();
+        private long localNodes;
+
+        SearchTask(SolverState state, AtomicReference<long[]> solution, LongAdder nodes) {
+            this.state = state;
+            this.solution = solution;
+            this.nodes = nodes;
+        }
+
+        @Override
+        protected void compute() {
+            search(state);
+            nodes.add(localNodes);
+            for (SearchTask task : forked) {
+                task.join();
+            }
+        }
+
+        private boolean search(SolverState s) {
+            if (solution.get() != null) {
+                return false;
+            }
+            localNodes++;
+            if (!s.propagate()) {
+                return false;
+            }
+            if (s.whitenFreeCells() && !s.propagate()) {
+                return false;
+            }
+
+            int cell = s.chooseBranchCell();
+            if (cell < 0) {
+                solution.compareAndSet(null, s.blackMask());
+                return true;
+            }
+
+            int mark = s.mark();
+            if (s.unknownCount() >= MIN_UNKNOWN_TO_SPLIT && getSurplusQueuedTaskCount() < SURPLUS_LIMIT) {
+                SolverState other = s.copy();
+                if (other.assign(cell, SolverState.WHITE, Deduction.GUESS)) {
+                    SearchTask task = new SearchTask(other, solution, nodes);
+                    task.fork();
+                    forked.add(task);
+                }
+                if (s.assign(cell, SolverState.BLACK, Deduction.GUESS) && search(s)) {
+                    return true;
+                }
+                s.undo(mark);
+                return false;
+            }
+
+            if (s.assign(cell, SolverState.BLACK, Deduction.GUESS) && search(s)) {
+                return true;
+            }
+            s.undo(mark);
+            if (s.assign(cell, SolverState.WHITE, Deduction.GUESS) && search(s)) {
+                return true;
+            }
+            s.undo(mark);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package solver;
+
+import model.Grid;
+
+/**
+ * Données immuables d'une grille pour le solveur : les valeurs et, pour
+ * chaque case, la liste de ses « pairs » (cases de même valeur dans la même
+ * ligne ou la même colonne), stockée en CSR dans deux tableaux d'int.
+ * Partagée sans copie entre tous les états de recherche et tous les threads.
+ */
+final class Puzzle {
+
+    final int size;
+    final int cells;
+    final short[] values;
+    // Pairs de la case i : peers[peerStart[i]] .. peers[peerStart[i + 1] - 1]
+    final int[] peerStart;
+    final int[] peers;
+
+    Puzzle(Grid grid) {
+        this.size = grid.getSize();
+        this.cells = size * size;
+        this.values = new short[cells];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                values[i * size + j] = (short) grid.getValue(i, j);
+            }
+        }
+
+        this.peerStart = new int[cells + 1];
+        for (int index = 0; index < cells; index++) {
+            peerStart[index + 1] = peerStart[index] + countPeers(index);
+        }
+        this.peers = new int[peerStart[cells]];
+        for (int index = 0; index < cells; index++) {
+            int row = index / size;
+            int col = index % size;
+            int k = peerStart[index];
+            for (int j = 0; j < size; j++) {
+                int other = row * size + j;
+                if (j != col && values[other] == values[index]) peers[k++] = other;
+            }
+            for (int i = 0; i < size; i++) {
+                int other = i * size + col;
+                if (i != row && values[other] == values[index]) peers[k++] = other;
+            }
+        }
+    }
+
+    private int countPeers(int index) {
+        int row = index / size;
+        int col = index % size;
+        int count = 0;
+        for (int j = 0; j < size; j++) {
+            if (j != col && values[row * size + j] == values[index]) count++;
+        }
+        for (int i = 0; i < size; i++) {
+            if (i != row && values[i * size + col] == values[index]) count++;
+        }
+        return count;
+    }
+}
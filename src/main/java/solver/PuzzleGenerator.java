@@ -0,0 +1,265 @@
+package solver;
+
+import model.Grid;
+import util.FileUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Générateur de grilles Hitori à solution unique, pour une taille quelconque.
+ *
+ * Chaque candidat est construit à partir d'une graine :
+ * 1. un motif de cases noires sans adjacence qui laisse les blanches connexes ;
+ * 2. un carré latin mélangé qui donne des chiffres distincts aux blanches ;
+ * 3. chaque noire reçoit le chiffre d'une blanche de sa ligne ou colonne, en
+ *    couvrant d'abord les blanches dont le chiffre n'est encore doublé nulle part ;
+ * 4. tant que le solveur trouve une autre solution, le chiffre d'une noire est
+ *    retouché pour l'invalider ; le candidat est abandonné s'il ne converge pas.
+ *
+ * Les candidats sont indépendants : generateToDirectory les répartit sur
+ * plusieurs threads et écrit chaque grille acceptée dès qu'elle est trouvée.
+ */
+public class PuzzleGenerator {
+
+    private PuzzleGenerator() {}
+
+    /**
+     * Construit le candidat de la graine seed puis retouche les chiffres des
+     * noires jusqu'à ce que la solution visée soit la seule. Retourne null si
+     * le candidat ne converge pas assez vite.
+     */
+    public static Grid build(int size, long seed, HitoriSolver solver) {
+        checkSize(size);
+        SplittableRandom random = new SplittableRandom(seed);
+        Grid pattern = new Grid(size);
+        fillLatinSquare(pattern, random);
+        placeBlacks(pattern, random);
+
+        Grid puzzle = new Grid(size);
+        boolean[] covered = new boolean[size * size];
+        long[] intended = new long[(size * size + 63) >>> 6];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                int value = pattern.getValue(i, j);
+                if (pattern.isBlack(i, j)) {
+                    int source = chooseDuplicateSource(pattern, i, j, covered, random);
+                    covered[source] = true;
+                    value = pattern.getValue(source / size, source % size);
+                    intended[(i * size + j) >>> 6] |= 1L << (i * size + j);
+                }
+                puzzle.setCell(i, j, value);
+            }
+        }
+
+        for (int round = 0; round < size * size; round++) {
+            long[] other = solver.findOtherSolution(puzzle, intended);
+            if (other == null) {
+                return puzzle;
+            }
+            if (!breakAlternative(pattern, puzzle, other, random)) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Première grille à solution unique en partant de la graine seed
+     */
+    public static Grid generate(int size, long seed) {
+        HitoriSolver solver = new HitoriSolver();
+        for (long attempt = seed; ; attempt++) {
+            Grid puzzle = build(size, attempt, solver);
+            if (puzzle != null) {
+                return puzzle;
+            }
+        }
+    }
+
+    /**
+     * Une grille de taille 1 n'a aucune blanche dont une noire pourrait
+     * recopier le chiffre : on la refuse d'emblée
+     */
+    private static void checkSize(int size) {
+        if (size < 2) {
+            throw new IllegalArgumentException("Taille de grille trop petite pour générer : " + size);
+        }
+    }
+
+    /**
+     * Génère count grilles uniques de taille size avec threads workers, et
+     * écrit chaque grille acceptée dans outDir dès qu'elle est trouvée
+     * (grid_<size>_<n>.txt). Retourne les chemins écrits.
+     */
+    public static List<Path> generateToDirectory(int size, int count, long seed, int threads, Path outDir)
+            throws IOException, InterruptedException {
+        checkSize(size);
+        Files.createDirectories(outDir);
+        AtomicLong nextSeed = new AtomicLong(seed);
+        AtomicInteger accepted = new AtomicInteger();
+        List<Path> written = Collections.synchronizedList(new ArrayList<>());
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                workers.add(executor.submit(() -> {
+                    HitoriSolver solver = new HitoriSolver();
+                    while (accepted.get() < count) {
+                        Grid puzzle = build(size, nextSeed.getAndIncrement(), solver);
+                        if (puzzle == null) {
+                            continue;
+                        }
+                        int index = accepted.getAndIncrement();
+                        if (index >= count) {
+                            return;
+                        }
+                        Path path = outDir.resolve("grid_" + size + "_" + index + ".txt");
+                        try {
+                            FileUtils.saveGridToPath(puzzle, path);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        written.add(path);
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throw new IllegalStateException("Échec de la génération", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return written;
+    }
+
+    /**
+     * Carré latin cyclique dont lignes, colonnes et symboles sont permutés
+     */
+    private static void fillLatinSquare(Grid grid, SplittableRandom random) {
+        int size = grid.getSize();
+        int[] rows = permutation(size, random);
+        int[] cols = permutation(size, random);
+        int[] symbols = permutation(size, random);
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                grid.setCell(i, j, symbols[(rows[i] + cols[j]) % size] + 1);
+            }
+        }
+    }
+
+    /**
+     * Noircit, dans un ordre aléatoire, toute case qui ne crée ni adjacence ni
+     * coupure. Le motif obtenu est maximal : aucune blanche ne peut encore être
+     * noircie, donc aucune autre solution ne peut simplement en ajouter une.
+     */
+    private static void placeBlacks(Grid grid, SplittableRandom random) {
+        int size = grid.getSize();
+        int[] order = permutation(size * size, random);
+        for (int index : order) {
+            int row = index / size;
+            int col = index % size;
+            if ((row > 0 && grid.isBlack(row - 1, col))
+                    || (row < size - 1 && grid.isBlack(row + 1, col))
+                    || (col > 0 && grid.isBlack(row, col - 1))
+                    || (col < size - 1 && grid.isBlack(row, col + 1))) {
+                continue;
+            }
+            if (grid.getConnectivity().wouldDisconnect(row, col)) {
+                continue;
+            }
+            grid.setBlack(row, col, true);
+        }
+    }
+
+    /**
+     * Rend invalide une autre solution : une case noire dans la solution visée
+     * mais blanche dans l'autre reçoit le chiffre d'une case blanche dans les
+     * deux, sur sa ligne ou sa colonne. La solution visée n'est pas touchée
+     * (la case y est noire), l'autre contient désormais un doublon.
+     */
+    private static boolean breakAlternative(Grid pattern, Grid puzzle, long[] other, SplittableRandom random) {
+        int size = pattern.getSize();
+        int[] order = permutation(size * size, random);
+        int[] sources = new int[2 * size];
+
+        for (int index : order) {
+            int row = index / size;
+            int col = index % size;
+            if (!pattern.isBlack(row, col) || isSet(other, index)) {
+                continue;
+            }
+            int count = 0;
+            for (int k = 0; k < size; k++) {
+                int inRow = row * size + k;
+                int inCol = k * size + col;
+                if (k != col && pattern.isWhite(row, k) && !isSet(other, inRow)) sources[count++] = inRow;
+                if (k != row && pattern.isWhite(k, col) && !isSet(other, inCol)) sources[count++] = inCol;
+            }
+            if (count > 0) {
+                int source = sources[random.nextInt(count)];
+                puzzle.setCell(row, col, pattern.getValue(source / size, source % size));
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isSet(long[] mask, int index) {
+        return (mask[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Case blanche de la ligne ou de la colonne de (row, col) dont le chiffre
+     * sera recopié dans la noire, en priorité une blanche pas encore couverte
+     */
+    private static int chooseDuplicateSource(Grid pattern, int row, int col, boolean[] covered, SplittableRandom random) {
+        int size = pattern.getSize();
+        int[] candidates = new int[2 * size];
+        int uncovered = 0;
+        int total = 0;
+        for (int k = 0; k < size; k++) {
+            if (k != col && pattern.isWhite(row, k)) candidates[total++] = row * size + k;
+            if (k != row && pattern.isWhite(k, col)) candidates[total++] = k * size + col;
+        }
+        // Regroupe en tête les candidates non couvertes
+        for (int k = 0; k < total; k++) {
+            if (!covered[candidates[k]]) {
+                int tmp = candidates[uncovered];
+                candidates[uncovered++] = candidates[k];
+                candidates[k] = tmp;
+            }
+        }
+        return candidates[random.nextInt(uncovered > 0 ? uncovered : total)];
+    }
+
+    private static int[] permutation(int n, SplittableRandom random) {
+        int[] perm = new int[n];
+        for (int k = 0; k < n; k++) perm[k] = k;
+        for (int k = n - 1; k > 0; k--) {
+            int other = random.nextInt(k + 1);
+            int tmp = perm[k];
+            perm[k] = perm[other];
+            perm[other] = tmp;
+        }
+        return perm;
+    }
+}
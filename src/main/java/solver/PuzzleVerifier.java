@@ -0,0 +1,63 @@
+package solver;
+
+import model.Grid;
+import util.FileUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Contrôle d'unicité d'un ensemble de grilles avant publication : chaque
+ * fichier d'un dossier est chargé puis ses solutions sont comptées jusqu'à
+ * la limite, les fichiers étant traités en parallèle (un solveur par tâche).
+ */
+public class PuzzleVerifier {
+
+    // Résultat pour un fichier illisible ou mal formé
+    public static final int UNREADABLE = -1;
+
+    private PuzzleVerifier() {}
+
+    /**
+     * Nombre de solutions (plafonné à limit) de chaque fichier .txt du
+     * dossier, trié par chemin ; UNREADABLE si le fichier ne se charge pas
+     */
+    public static Map<Path, Integer> countSolutionsInDirectory(Path directory, int limit) throws IOException {
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(directory)) {
+            files = stream
+                .filter(path -> path.getFileName().toString().endsWith(".txt"))
+                .collect(Collectors.toList());
+        }
+
+        Map<Path, Integer> results = new ConcurrentHashMap<>();
+        files.parallelStream().forEach(path -> results.put(path, countSolutions(path, limit)));
+        return new TreeMap<>(results);
+    }
+
+    /**
+     * Fichiers du dossier qui n'ont pas exactement une solution
+     */
+    public static List<Path> findInvalidPuzzles(Path directory) throws IOException {
+        return countSolutionsInDirectory(directory, 2).entrySet().stream()
+            .filter(entry -> entry.getValue() != 1)
+            .map(Map.Entry::getKey)
+            .collect(Collectors.toList());
+    }
+
+    private static int countSolutions(Path path, int limit) {
+        try {
+            Grid grid = FileUtils.loadGridFromPath(path);
+            return new HitoriSolver().countSolutions(grid, limit);
+        } catch (IOException | RuntimeException e) {
+            return UNREADABLE;
+        }
+    }
+}
@@ -0,0 +1,330 @@
+package solver;
+
+import model.Grid;
+import util.FileUtils;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache de solutions indexé par la forme canonique des grilles.
+ *
+ * Une grille et ses 7 images par rotation ou symétrie (et, en option, toute
+ * renumérotation de ses chiffres) ont la même forme canonique : la plus
+ * petite, dans l'ordre lexicographique, des 8 lectures de la grille. La
+ * solution y est stockée en masque de bits dans l'orientation canonique,
+ * puis ramenée dans l'orientation de la grille demandée.
+ *
+ * Niveau mémoire borné en LRU, niveau disque optionnel (un fichier par forme
+ * canonique, nommé d'après son empreinte de 64 bits).
+ */
+public class SolutionCache {
+
+    // Masque stocké pour une grille prouvée sans solution
+    private static final long[] NO_SOLUTION = new long[0];
+
+    private final int capacity;
+    private final boolean relabelValues;
+    private final Path directory;
+    private final Map<Key, long[]> entries;
+    private long hits;
+    private long misses;
+
+    public SolutionCache(int capacity) {
+        this(capacity, true, null);
+    }
+
+    /**
+     * @param relabelValues vrai pour identifier aussi les grilles qui ne
+     *                      diffèrent que par une renumérotation des chiffres
+     * @param directory     dossier du niveau disque, ou null
+     */
+    public SolutionCache(int capacity, boolean relabelValues, Path directory) {
+        this.capacity = capacity;
+        this.relabelValues = relabelValues;
+        this.directory = directory;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, long[]> eldest) {
+                return size() > SolutionCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Solution des chiffres de la grille, depuis le cache si une grille
+     * équivalente a déjà été résolue ; sinon résolue puis mise en cache
+     */
+    public SolveResult solve(Grid grid) {
+        return solve(grid, 1);
+    }
+
+    /**
+     * Comme solve(grid), en résolvant les grilles absentes du cache sur
+     * threads threads (ParallelSolver au-delà d'un) ; la grille n'est pas
+     * modifiée
+     */
+    public SolveResult solve(Grid grid, int threads) {
+        long start = System.nanoTime();
+        Canonical canonical = canonicalize(grid);
+        long[] stored = lookup(canonical.key);
+        if (stored != null) {
+            return toResult(grid.getSize(), canonical, stored, 0, System.nanoTime() - start);
+        }
+
+        SolveResult result = threads > 1
+            ? new ParallelSolver(threads).solve(grid.blankCopy())
+            : new HitoriSolver().solve(grid);
+        store(canonical.key, result.isSolved() ? canonical.toCanonical(result.getBlackMask()) : NO_SOLUTION);
+        return result;
+    }
+
+    /**
+     * Masque des cases noires en cache pour la grille, ou null si absent
+     */
+    public long[] get(Grid grid) {
+        Canonical canonical = canonicalize(grid);
+        long[] stored = lookup(canonical.key);
+        return stored == null || stored == NO_SOLUTION ? null : canonical.fromCanonical(stored);
+    }
+
+    /**
+     * Enregistre la solution (masque d'un bit par case) des chiffres de la grille
+     */
+    public void put(Grid grid, long[] blackMask) {
+        Canonical canonical = canonicalize(grid);
+        store(canonical.key, canonical.toCanonical(blackMask));
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private SolveResult toResult(int size, Canonical canonical, long[] stored, long nodes, long elapsed) {
+        if (stored == NO_SOLUTION) {
+            return new SolveResult(SolveResult.Status.NO_SOLUTION, size, null, nodes, elapsed);
+        }
+        return new SolveResult(SolveResult.Status.SOLVED, size, canonical.fromCanonical(stored), nodes, elapsed);
+    }
+
+    private long[] lookup(Key key) {
+        synchronized (this) {
+            long[] stored = entries.get(key);
+            if (stored != null) {
+                hits++;
+                return stored;
+            }
+        }
+
+        long[] stored = readFromDisk(key);
+        synchronized (this) {
+            if (stored != null) {
+                hits++;
+                entries.put(key, stored);
+            } else {
+                misses++;
+            }
+        }
+        return stored;
+    }
+
+    private void store(Key key, long[] mask) {
+        synchronized (this) {
+            entries.put(key, mask);
+        }
+        writeToDisk(key, mask);
+    }
+
+    // ==================== Forme canonique ====================
+
+    /**
+     * Case de la grille lue à la position (row, col) de la lecture numéro
+     * symmetry : bit 2 = transposition, bit 0 = lignes inversées,
+     * bit 1 = colonnes inversées
+     */
+    private static int source(int symmetry, int size, int row, int col) {
+        int a = (symmetry & 4) != 0 ? col : row;
+        int b = (symmetry & 4) != 0 ? row : col;
+        if ((symmetry & 1) != 0) a = size - 1 - a;
+        if ((symmetry & 2) != 0) b = size - 1 - b;
+        return a * size + b;
+    }
+
+    Canonical canonicalize(Grid grid) {
+        int size = grid.getSize();
+        int cells = size * size;
+        short[] best = null;
+        int bestSymmetry = 0;
+        short[] candidate = new short[cells];
+        short[] labels = new short[grid.getMaxValue() + 1];
+
+        for (int symmetry = 0; symmetry < 8; symmetry++) {
+            Arrays.fill(labels, (short) 0);
+            short nextLabel = 1;
+            for (int k = 0; k < cells; k++) {
+                int source = source(symmetry, size, k / size, k % size);
+                int value = grid.getValue(source / size, source % size);
+                if (relabelValues && value > 0) {
+                    if (labels[value] == 0) {
+                        labels[value] = nextLabel++;
+                    }
+                    value = labels[value];
+                }
+                candidate[k] = (short) value;
+            }
+            if (best == null || Arrays.compare(candidate, best) < 0) {
+                best = candidate.clone();
+                bestSymmetry = symmetry;
+            }
+        }
+        return new Canonical(size, bestSymmetry, new Key(best));
+    }
+
+    /**
+     * Forme canonique d'une grille et symétrie qui y mène
+     */
+    static final class Canonical {
+        final int size;
+        final int symmetry;
+        final Key key;
+
+        Canonical(int size, int symmetry, Key key) {
+            this.size = size;
+            this.symmetry = symmetry;
+            this.key = key;
+        }
+
+        long[] toCanonical(long[] mask) {
+            long[] result = new long[mask.length];
+            for (int k = 0; k < size * size; k++) {
+                int source = source(symmetry, size, k / size, k % size);
+                if ((mask[source >>> 6] & (1L << source)) != 0) {
+                    result[k >>> 6] |= 1L << k;
+                }
+            }
+            return result;
+        }
+
+        long[] fromCanonical(long[] mask) {
+            long[] result = new long[mask.length];
+            for (int k = 0; k < size * size; k++) {
+                if ((mask[k >>> 6] & (1L << k)) != 0) {
+                    int source = source(symmetry, size, k / size, k % size);
+                    result[source >>> 6] |= 1L << source;
+                }
+            }
+            return result;
+        }
+    }
+
+    static final class Key {
+        final short[] values;
+        final long hash;
+
+        Key(short[] values) {
+            this.values = values;
+            long h = values.length;
+            for (short value : values) {
+                h = (h ^ value) * 0x9E3779B97F4A7C15L;
+                h ^= h >>> 29;
+            }
+            this.hash = h;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key
+                && ((Key) other).hash == hash
+                && Arrays.equals(((Key) other).values, values);
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(hash);
+        }
+    }
+
+    // ==================== Niveau disque ====================
+
+    private Path fileFor(Key key) {
+        return directory.resolve(String.format("%016x.sol", key.hash));
+    }
+
+    /**
+     * Format : nombre de cases, chiffres canoniques (vérifiés à la lecture
+     * pour écarter une collision d'empreinte), nombre de mots puis le masque
+     * (-1 mots pour une grille sans solution). Un fichier dont le nombre de
+     * mots ne correspond pas à la grille est traité comme absent.
+     */
+    private long[] readFromDisk(Key key) {
+        if (directory == null) {
+            return null;
+        }
+        Path file = fileFor(key);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != key.values.length) {
+                return null;
+            }
+            for (short value : key.values) {
+                if (in.readShort() != value) {
+                    return null;
+                }
+            }
+            int words = in.readInt();
+            if (words == -1) {
+                return NO_SOLUTION;
+            }
+            if (words != (key.values.length + 63) >>> 6) {
+                return null;
+            }
+            long[] mask = new long[words];
+            for (int w = 0; w < words; w++) {
+                mask[w] = in.readLong();
+            }
+            return mask;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private void writeToDisk(Key key, long[] mask) {
+        if (directory == null) {
+            return;
+        }
+        ByteBuffer data = ByteBuffer.allocate(4 + 2 * key.values.length + 4 + 8 * mask.length);
+        data.putInt(key.values.length);
+        for (short value : key.values) {
+            data.putShort(value);
+        }
+        data.putInt(mask == NO_SOLUTION ? -1 : mask.length);
+        for (long word : mask) {
+            data.putLong(word);
+        }
+        data.flip();
+        try {
+            // Fichier temporaire supprimé en cas d'échec, remplacement atomique
+            FileUtils.writeAtomically(fileFor(key), data);
+        } catch (IOException e) {
+            // Le niveau disque n'est qu'une optimisation : on reste en mémoire
+            System.err.println("Cache de solutions : écriture impossible (" + e.getMessage() + ")");
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package solver;
+
+import model.Grid;
+
+/**
+ * Résultat d'une résolution : la solution sous forme de masque de cases
+ * noires (un bit par case), ou l'absence de solution prouvée par une
+ * recherche exhaustive, avec les statistiques de la recherche.
+ */
+public final class SolveResult {
+
+    public enum Status { SOLVED, NO_SOLUTION }
+
+    private final Status status;
+    private final int size;
+    private final long[] blackMask;
+    private final long nodes;
+    private final long elapsedNanos;
+
+    SolveResult(Status status, int size, long[] blackMask, long nodes, long elapsedNanos) {
+        this.status = status;
+        this.size = size;
+        this.blackMask = blackMask;
+        this.nodes = nodes;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isSolved() {
+        return status == Status.SOLVED;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public boolean isBlack(int row, int col) {
+        int index = row * size + col;
+        return blackMask != null && (blackMask[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Copie du masque des cases noires (null si pas de solution)
+     */
+    public long[] getBlackMask() {
+        return blackMask == null ? null : blackMask.clone();
+    }
+
+    /**
+     * Nombre de nœuds de recherche explorés
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getNodesPerSecond() {
+        return elapsedNanos == 0 ? 0 : nodes * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Recopie la solution dans la grille (qui doit avoir la même taille)
+     */
+    public void applyTo(Grid grid) {
+        if (!isSolved()) {
+            throw new IllegalStateException("Aucune solution à appliquer");
+        }
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                grid.setBlack(i, j, isBlack(i, j));
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return status + " (" + nodes + " nœuds, " + elapsedNanos / 1_000_000 + " ms)";
+    }
+}
@@ -0,0 +1,378 @@
+package solver;
+
+import java.util.Arrays;
+
+/**
+ * État de recherche du solveur : une valeur par case (inconnue, blanche,
+ * noire), la règle qui l'a fixée, et une pile (trail) des affectations qui
+ * permet de revenir en arrière en O(nombre de cases annulées) au lieu de
+ * recopier la grille à chaque branche.
+ */
+final class SolverState {
+
+    static final byte UNKNOWN = 0;
+    static final byte WHITE = 1;
+    static final byte BLACK = 2;
+
+    private static final Deduction[] DEDUCTIONS = Deduction.values();
+
+    final Puzzle puzzle;
+    private final int size;
+    private final int cells;
+
+    private final byte[] states;
+    private final byte[] reasons;
+    private final int[] trail;
+    private int trailSize;
+    private int unknownCount;
+
+    // File des cases fixées dont les conséquences restent à propager
+    private final int[] queue;
+    private int queueHead;
+    private int queueTail;
+    // Vrai si une case noire a été ajoutée depuis le dernier contrôle de connexité
+    private boolean graphChanged;
+
+    // Tampons du parcours de Tarjan (points d'articulation)
+    private final int[] disc;
+    private final int[] low;
+    private final int[] parent;
+    private final int[] stackNode;
+    private final byte[] stackDir;
+    private final int[] cutPoints;
+
+    SolverState(Puzzle puzzle) {
+        this.puzzle = puzzle;
+        this.size = puzzle.size;
+        this.cells = puzzle.cells;
+        this.states = new byte[cells];
+        this.reasons = new byte[cells];
+        this.trail = new int[cells];
+        this.queue = new int[cells];
+        this.disc = new int[cells];
+        this.low = new int[cells];
+        this.parent = new int[cells];
+        this.stackNode = new int[cells];
+        this.stackDir = new byte[cells];
+        this.cutPoints = new int[cells];
+        this.unknownCount = cells;
+        this.graphChanged = true;
+    }
+
+    /**
+     * Copie indépendante (même Puzzle partagé), pour confier une branche à un autre thread
+     */
+    SolverState copy() {
+        SolverState copy = new SolverState(puzzle);
+        System.arraycopy(states, 0, copy.states, 0, cells);
+        System.arraycopy(reasons, 0, copy.reasons, 0, cells);
+        System.arraycopy(trail, 0, copy.trail, 0, trailSize);
+        copy.trailSize = trailSize;
+        copy.unknownCount = unknownCount;
+        copy.graphChanged = graphChanged;
+        return copy;
+    }
+
+    byte get(int index) {
+        return states[index];
+    }
+
+    Deduction reason(int index) {
+        return DEDUCTIONS[reasons[index]];
+    }
+
+    int unknownCount() {
+        return unknownCount;
+    }
+
+    int mark() {
+        return trailSize;
+    }
+
+    int trailSize() {
+        return trailSize;
+    }
+
+    int trailAt(int position) {
+        return trail[position];
+    }
+
+    /**
+     * Annule toutes les affectations faites depuis mark
+     */
+    void undo(int mark) {
+        while (trailSize > mark) {
+            int index = trail[--trailSize];
+            states[index] = UNKNOWN;
+            unknownCount++;
+        }
+        queueHead = 0;
+        queueTail = 0;
+    }
+
+    /**
+     * Fixe une case ; faux en cas de contradiction avec son état actuel
+     */
+    boolean assign(int index, byte value, Deduction reason) {
+        byte current = states[index];
+        if (current == value) {
+            return true;
+        }
+        if (current != UNKNOWN) {
+            return false;
+        }
+        states[index] = value;
+        reasons[index] = (byte) reason.ordinal();
+        trail[trailSize++] = index;
+        queue[queueTail++] = index;
+        unknownCount--;
+        if (value == BLACK) {
+            graphChanged = true;
+        }
+        return true;
+    }
+
+    /**
+     * Déductions qui ne dépendent que des chiffres : sandwich, paire, coin,
+     * et (si assumeUnique) chiffres uniques laissés blancs
+     */
+    boolean applyStaticDeductions(boolean assumeUnique) {
+        short[] values = puzzle.values;
+        for (int line = 0; line < size; line++) {
+            for (int k = 0; k + 1 < size; k++) {
+                // Ligne line, colonnes k / k+1 / k+2 puis colonne line, lignes k / k+1 / k+2
+                for (int pass = 0; pass < 2; pass++) {
+                    int a = pass == 0 ? line * size + k : k * size + line;
+                    int step = pass == 0 ? 1 : size;
+                    int b = a + step;
+                    if (k + 2 < size && values[a] == values[b + step] && !assign(b, WHITE, Deduction.SANDWICH)) {
+                        return false;
+                    }
+                    if (values[a] == values[b] && !blackenOthersInLine(pass == 0, line, a, b)) {
+                        return false;
+                    }
+                }
+            }
+        }
+
+        int last = size - 1;
+        int[][] corners = {{0, 0, 1, 1}, {0, last, 1, -1}, {last, 0, -1, 1}, {last, last, -1, -1}};
+        for (int[] corner : corners) {
+            int index = corner[0] * size + corner[1];
+            int vertical = (corner[0] + corner[2]) * size + corner[1];
+            int horizontal = corner[0] * size + corner[1] + corner[3];
+            if (size > 1 && values[index] == values[vertical] && values[index] == values[horizontal]
+                    && !assign(index, BLACK, Deduction.CORNER)) {
+                return false;
+            }
+        }
+
+        if (assumeUnique) {
+            for (int index = 0; index < cells; index++) {
+                if (puzzle.peerStart[index] == puzzle.peerStart[index + 1] && !assign(index, WHITE, Deduction.UNIQUE)) {
+                    return false;
+                }
+            }
+        }
+        return propagate();
+    }
+
+    /**
+     * Paire adjacente a/b de même chiffre : l'une des deux reste blanche, donc
+     * tous les autres exemplaires de ce chiffre dans la ligne (ou colonne) sont noirs
+     */
+    private boolean blackenOthersInLine(boolean isRow, int line, int a, int b) {
+        for (int k = 0; k < size; k++) {
+            int index = isRow ? line * size + k : k * size + line;
+            if (index != a && index != b && puzzle.values[index] == puzzle.values[a]
+                    && !assign(index, BLACK, Deduction.PAIR)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Cases encore inconnues dont tous les pairs sont noirs : les laisser
+     * blanches ne peut invalider aucune solution. Vrai si une case a été fixée.
+     */
+    boolean whitenFreeCells() {
+        int before = trailSize;
+        for (int index = 0; index < cells; index++) {
+            if (states[index] == UNKNOWN && countOpenPeers(index) == 0) {
+                assign(index, WHITE, Deduction.UNIQUE);
+            }
+        }
+        return trailSize != before;
+    }
+
+    private int countOpenPeers(int index) {
+        int open = 0;
+        for (int k = puzzle.peerStart[index]; k < puzzle.peerStart[index + 1]; k++) {
+            if (states[puzzle.peers[k]] != BLACK) {
+                open++;
+            }
+        }
+        return open;
+    }
+
+    /**
+     * Propage jusqu'au point fixe ; faux si une contradiction apparaît
+     */
+    boolean propagate() {
+        while (true) {
+            while (queueHead < queueTail) {
+                int index = queue[queueHead++];
+                if (states[index] == WHITE) {
+                    for (int k = puzzle.peerStart[index]; k < puzzle.peerStart[index + 1]; k++) {
+                        if (!assign(puzzle.peers[k], BLACK, Deduction.WHITE_DUPLICATE)) {
+                            return fail();
+                        }
+                    }
+                } else {
+                    int row = index / size;
+                    int col = index - row * size;
+                    if ((row > 0 && !assign(index - size, WHITE, Deduction.BLACK_NEIGHBOUR))
+                            || (row < size - 1 && !assign(index + size, WHITE, Deduction.BLACK_NEIGHBOUR))
+                            || (col > 0 && !assign(index - 1, WHITE, Deduction.BLACK_NEIGHBOUR))
+                            || (col < size - 1 && !assign(index + 1, WHITE, Deduction.BLACK_NEIGHBOUR))) {
+                        return fail();
+                    }
+                }
+            }
+            queueHead = 0;
+            queueTail = 0;
+
+            if (!graphChanged) {
+                return true;
+            }
+            graphChanged = false;
+            int before = trailSize;
+            if (!checkConnectivity()) {
+                return fail();
+            }
+            if (trailSize == before) {
+                return true;
+            }
+        }
+    }
+
+    private boolean fail() {
+        queueHead = 0;
+        queueTail = 0;
+        graphChanged = true;
+        return false;
+    }
+
+    /**
+     * Les cases non noires doivent former un seul bloc. Toute case inconnue
+     * qui est un point d'articulation de ce bloc doit rester blanche : la
+     * noircir isolerait ses voisines, qui seraient alors toutes blanches.
+     */
+    private boolean checkConnectivity() {
+        int start = -1;
+        int nonBlack = 0;
+        for (int index = 0; index < cells; index++) {
+            if (states[index] != BLACK) {
+                nonBlack++;
+                if (start < 0) start = index;
+            }
+        }
+        if (nonBlack == 0) {
+            return false;
+        }
+
+        Arrays.fill(disc, 0);
+        int timer = 0;
+        int cuts = 0;
+        int rootChildren = 0;
+        int top = 0;
+
+        disc[start] = low[start] = ++timer;
+        parent[start] = -1;
+        stackNode[top] = start;
+        stackDir[top++] = 0;
+
+        while (top > 0) {
+            int u = stackNode[top - 1];
+            int dir = stackDir[top - 1];
+            if (dir < 4) {
+                stackDir[top - 1]++;
+                int v = neighbour(u, dir);
+                if (v < 0 || states[v] == BLACK) {
+                    continue;
+                }
+                if (disc[v] == 0) {
+                    parent[v] = u;
+                    disc[v] = low[v] = ++timer;
+                    stackNode[top] = v;
+                    stackDir[top++] = 0;
+                    if (u == start) rootChildren++;
+                } else if (v != parent[u]) {
+                    low[u] = Math.min(low[u], disc[v]);
+                }
+            } else {
+                top--;
+                int p = parent[u];
+                if (p >= 0) {
+                    low[p] = Math.min(low[p], low[u]);
+                    if (p != start && low[u] >= disc[p] && states[p] == UNKNOWN) {
+                        cutPoints[cuts++] = p;
+                    }
+                }
+            }
+        }
+
+        if (timer < nonBlack) {
+            return false;
+        }
+        if (rootChildren > 1 && states[start] == UNKNOWN) {
+            cutPoints[cuts++] = start;
+        }
+        for (int k = 0; k < cuts; k++) {
+            assign(cutPoints[k], WHITE, Deduction.CONNECTIVITY);
+        }
+        return true;
+    }
+
+    private int neighbour(int index, int dir) {
+        switch (dir) {
+            case 0: return index >= size ? index - size : -1;
+            case 1: return index + size < cells ? index + size : -1;
+            case 2: return index % size > 0 ? index - 1 : -1;
+            default: return index % size < size - 1 ? index + 1 : -1;
+        }
+    }
+
+    /**
+     * Case inconnue la plus contrainte (le plus de pairs encore ouverts), ou -1
+     */
+    int chooseBranchCell() {
+        int best = -1;
+        int bestScore = -1;
+        for (int index = 0; index < cells; index++) {
+            if (states[index] != UNKNOWN) {
+                continue;
+            }
+            int score = countOpenPeers(index);
+            if (score > bestScore) {
+                best = index;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Cases noires de l'état courant, un bit par case
+     */
+    long[] blackMask() {
+        long[] mask = new long[(cells + 63) >>> 6];
+        for (int index = 0; index < cells; index++) {
+            if (states[index] == BLACK) {
+                mask[index >>> 6] |= 1L << index;
+            }
+        }
+        return mask;
+    }
+}
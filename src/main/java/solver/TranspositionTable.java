@@ -0,0 +1,58 @@
+package solver;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Table de transposition de taille fixe, sans verrou, indexée par une
+ * empreinte de 64 bits (Grid.getStateHash par exemple).
+ *
+ * Chaque entrée occupe deux longs : (empreinte ^ valeur) puis valeur. Une
+ * lecture n'est acceptée que si les deux mots redonnent l'empreinte cherchée,
+ * ce qui écarte les entrées déchirées par une écriture concurrente sans
+ * aucune synchronisation. Une nouvelle entrée remplace toujours l'ancienne.
+ */
+public class TranspositionTable {
+
+    private final AtomicLongArray slots;
+    private final int mask;
+
+    /**
+     * @param capacity nombre d'entrées, arrondi à la puissance de 2 supérieure
+     */
+    public TranspositionTable(int capacity) {
+        int entries = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.slots = new AtomicLongArray(2 * entries);
+        this.mask = entries - 1;
+    }
+
+    public int getCapacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Valeur associée à hash, ou missing si l'entrée a été remplacée ou
+     * n'a jamais été écrite
+     */
+    public long get(long hash, long missing) {
+        int slot = slotFor(hash);
+        long check = slots.getAcquire(slot);
+        long value = slots.getAcquire(slot + 1);
+        return (check ^ value) == hash ? value : missing;
+    }
+
+    public void put(long hash, long value) {
+        int slot = slotFor(hash);
+        slots.setRelease(slot, hash ^ value);
+        slots.setRelease(slot + 1, value);
+    }
+
+    public void clear() {
+        for (int k = 0; k < slots.length(); k++) {
+            slots.setRelease(k, 0L);
+        }
+    }
+
+    private int slotFor(long hash) {
+        return ((int) (hash ^ (hash >>> 32)) & mask) << 1;
+    }
+}
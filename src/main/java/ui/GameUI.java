@@ -2,6 +2,7 @@ package ui;
 
 import controller.HitoriGame;
 import exception.InvalidMoveException;
+import exception.SaveLockedException;
 import javafx.animation.*;
 import javafx.application.Platform;
 import javafx.geometry.Insets;
@@ -16,8 +17,16 @@ import javafx.scene.shape.Circle;
 import javafx.stage.Stage;
 import javafx.util.Duration;
 import model.Cell;
-
+import model.ValidationReport;
+import solver.Hint;
+import util.AutosaveService;
+import util.FileUtils;
+import util.MoveJournal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
 
 public class GameUI {
 
@@ -32,6 +41,16 @@ public class GameUI {
     private Button[][] buttonGrid;
     private VBox root;
     private Pane particlePane;
+    // Journal des coups pour reprendre la partie après un arrêt brutal
+    private MoveJournal journal;
+    // Intervalle entre deux tops d'horloge écrits dans le journal
+    private static final int JOURNAL_TICK_SECONDS = 10;
+    // Sauvegarde automatique en arrière-plan, au plus une par intervalle
+    private AutosaveService autosave;
+    private static final long AUTOSAVE_INTERVAL_MILLIS = 1000;
+    // Faux tant que la partie n'a rien à sauvegarder : ouvrir un niveau
+    // sans y jouer ne remplace pas la partie sauvegardée
+    private boolean played;
 
     public GameUI(HitoriGame game) {
         this.game = game;
@@ -41,6 +60,8 @@ public class GameUI {
         this.game = game;
         this.seconds = savedSeconds;
         this.moveCount = savedMoves;
+        // Partie reprise : c'est déjà elle qui est sauvegardée
+        this.played = true;
     }
 
     public void show(Stage stage) {
@@ -79,7 +100,10 @@ public class GameUI {
         stage.setScene(scene);
         stage.show();
 
+        openJournal();
         startTimer();
+        // Le joueur enchaînera probablement sur le niveau suivant
+        game.prefetchNextLevel();
     }
 
     private VBox createHeader() {
@@ -141,19 +165,24 @@ public class GameUI {
         Button checkButton = createStyledButton("✓ Vérifier", "check-button");
         Button hintButton = createStyledButton("💡 Indice", "hint-button");
         Button saveButton = createStyledButton("💾 Sauvegarder", "save-button");
+        Button undoButton = createStyledButton("↶ Annuler", "undo-button");
+        Button redoButton = createStyledButton("↷ Rétablir", "undo-button");
         Button restartButton = createStyledButton("↻ Recommencer", "restart-button");
         Button backButton = createStyledButton("← Retour", "back-button");
 
         checkButton.setOnAction(e -> checkGameWithAnimation());
         hintButton.setOnAction(e -> showHint());
         saveButton.setOnAction(e -> saveGame());
+        undoButton.setOnAction(e -> undoMove());
+        redoButton.setOnAction(e -> redoMove());
         restartButton.setOnAction(e -> restartGame());
         backButton.setOnAction(e -> {
             timeline.stop();
+            closeJournal(played);
             new ui.LevelSelectorUI(game).show(stage);
         });
 
-        controls.getChildren().addAll(checkButton, hintButton, saveButton, restartButton, backButton);
+        controls.getChildren().addAll(checkButton, hintButton, undoButton, redoButton, saveButton, restartButton, backButton);
         return controls;
     }
 
@@ -219,6 +248,7 @@ public class GameUI {
 
             updateCellAppearance(btn, cell);
             animateCellFlip(btn);
+            journalCell(row, col);
 
         } catch (InvalidMoveException ex) {
             shakeButton(btn);
@@ -227,7 +257,7 @@ public class GameUI {
     }
 
     private void updateCellAppearance(Button btn, Cell cell) {
-        btn.getStyleClass().removeAll("white-cell", "black-cell");
+        btn.getStyleClass().removeAll("white-cell", "black-cell", "error-cell", "hint-cell");
         
         if (cell.isBlack()) {
             btn.getStyleClass().add("black-cell");
@@ -257,28 +287,46 @@ public class GameUI {
     }
 
     private void checkGameWithAnimation() {
-        System.out.println(game.getGrid().toString());
-        System.out.println("\n🔍 Vérification de la grille...");
-
-        if (!game.isGameWon()) {
-            showError(
-                "❌ La grille n'est pas encore complète ou contient des erreurs.\n\n" +
-                "Vérifiez :\n" +
-                "• Les doublons dans les lignes/colonnes\n" +
-                "• Les cases noires adjacentes\n" +
-                "• La connexité des cases blanches"
-            );
+        ValidationReport report = game.getGrid().validate();
+
+        if (!report.isValid()) {
+            highlightErrors(report);
+            showError(report.getDescription());
             return;
         }
 
-        if (game.isGameWon() && !victoryShown) {
+        if (!victoryShown) {
             victoryShown = true;
             System.out.println("🎉 VICTOIRE !");
             timeline.stop();
+            // Partie terminée : la sauvegarde en cours n'est pas remplacée
+            closeJournal(false);
             showVictoryAnimation();
         }
     }
 
+    /**
+     * Met en évidence exactement les cases signalées par la validation
+     */
+    private void highlightErrors(ValidationReport report) {
+        for (Button[] row : buttonGrid) {
+            for (Button btn : row) {
+                btn.getStyleClass().remove("error-cell");
+            }
+        }
+
+        for (int k = 0; k < report.getViolationCount(); k++) {
+            if (report.getKind(k) == ValidationReport.Violation.NO_WHITE_CELL) {
+                continue;
+            }
+            Button btn = buttonGrid[report.getRow(k)][report.getCol(k)];
+            if (!btn.getStyleClass().contains("error-cell")) {
+                btn.getStyleClass().add("error-cell");
+                shakeButton(btn);
+            }
+        }
+    }
+
     private void showVictoryAnimation() {
         createConfetti();
         
@@ -320,7 +368,7 @@ public class GameUI {
 
         alert.setOnHidden(e -> {
             Stage stage = (Stage) root.getScene().getWindow();
-            ScoreBoardUI scoreBoardUI = new ScoreBoardUI(seconds);
+            ScoreBoardUI scoreBoardUI = new ScoreBoardUI(game, seconds, moveCount);
             scoreBoardUI.show(stage);
         });
     }
@@ -350,7 +398,48 @@ public class GameUI {
     }
 
     private void showHint() {
-        showInfo("💡 Astuce : Cherchez les doublons dans les lignes et colonnes !\nNoircissez une des cases dupliquées.");
+        Hint hint = game.getHint();
+        if (hint == null) {
+            showInfo(game.isGameWon()
+                ? "💡 Aucun indice : la grille est déjà résolue !"
+                : "💡 Aucun indice pour le moment, réessayez dans un instant.");
+            return;
+        }
+
+        for (Button[] row : buttonGrid) {
+            for (Button btn : row) {
+                btn.getStyleClass().remove("hint-cell");
+            }
+        }
+        Button btn = buttonGrid[hint.getRow()][hint.getCol()];
+        btn.getStyleClass().add("hint-cell");
+        animateCellFlip(btn);
+        showInfo("💡 " + hint.getDescription());
+    }
+
+    private void undoMove() {
+        int index = game.undo();
+        if (index >= 0) {
+            moveCount--;
+            refreshCell(index);
+        }
+    }
+
+    private void redoMove() {
+        int index = game.redo();
+        if (index >= 0) {
+            moveCount++;
+            refreshCell(index);
+        }
+    }
+
+    private void refreshCell(int index) {
+        int size = game.getGrid().getSize();
+        Button btn = buttonGrid[index / size][index % size];
+        updateCellAppearance(btn, game.getGrid().getCell(index / size, index % size));
+        animateCellFlip(btn);
+        moveCountLabel.setText("🎯 " + moveCount + " coups");
+        journalCell(index / size, index % size);
     }
 
     private void restartGame() {
@@ -360,26 +449,162 @@ public class GameUI {
         victoryShown = false;
         moveCountLabel.setText("🎯 0 coups");
         drawGrid();
+        if (!played) {
+            return;
+        }
+        if (journal != null) {
+            try {
+                journal.recordClear();
+                journal.recordTick(seconds, moveCount);
+            } catch (IOException ex) {
+                disableJournal(ex);
+            }
+        }
+        markDirty();
     }
 
     private void saveGame() {
-        try {
-            util.FileUtils.saveGameState(game, seconds, moveCount);
-            showInfo("💾 Partie sauvegardée avec succès !");
-        } catch (Exception ex) {
-            showError("Erreur lors de la sauvegarde : " + ex.getMessage());
+        played = true;
+        if (journal != null) {
+            try {
+                // Premier enregistrement : le journal est rattaché à cette partie
+                journal.recordTick(seconds, moveCount);
+            } catch (IOException ex) {
+                disableJournal(ex);
+            }
         }
+        // Écriture en arrière-plan : le thread JavaFX n'attend pas le disque
+        CompletableFuture<Void> saving = autosave != null
+            ? autosave.saveNow()
+            : CompletableFuture.runAsync(() -> {
+                try {
+                    FileUtils.saveGameState(game, seconds, moveCount);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            }, util.BackgroundTasks.executor());
+
+        saving.whenComplete((done, error) -> Platform.runLater(() -> {
+            if (error == null) {
+                showInfo("💾 Partie sauvegardée avec succès !");
+            } else {
+                Throwable cause = error.getCause() != null ? error.getCause() : error;
+                showError("Erreur lors de la sauvegarde : " + cause.getMessage());
+            }
+        }));
     }
 
     private void startTimer() {
         timeline = new Timeline(new KeyFrame(Duration.seconds(1), e -> {
             seconds++;
             timerLabel.setText(String.format("⏱ %02d:%02d", seconds / 60, seconds % 60));
+            if (played && seconds % JOURNAL_TICK_SECONDS == 0) {
+                if (journal != null) {
+                    try {
+                        journal.recordTick(seconds, moveCount);
+                    } catch (IOException ex) {
+                        disableJournal(ex);
+                    }
+                }
+                markDirty();
+            }
         }));
         timeline.setCycleCount(Timeline.INDEFINITE);
         timeline.play();
     }
 
+    /**
+     * Au premier coup, la partie affichée devient la sauvegarde de référence.
+     * Ensuite chaque coup est ajouté au journal, et la sauvegarde complète
+     * est réécrite en arrière-plan au plus une fois par seconde.
+     */
+    private void openJournal() {
+        journal = FileUtils.openJournal();
+        try {
+            journal.start(game, seconds, moveCount);
+        } catch (SaveLockedException ex) {
+            // Une autre instance joue sur cette sauvegarde : on ne l'écrase pas
+            journal = null;
+            showInfo("💾 " + ex.getMessage() + " : sauvegarde automatique désactivée");
+            return;
+        } catch (IOException ex) {
+            disableJournal(ex);
+        }
+        autosave = new AutosaveService(FileUtils.getSavePath(), AUTOSAVE_INTERVAL_MILLIS,
+            Platform::runLater, this::captureState);
+    }
+
+    /**
+     * État courant à sauvegarder ; une fois écrit, le journal est vidé s'il
+     * n'a rien reçu depuis la capture
+     */
+    private AutosaveService.Snapshot captureState() {
+        int mark = journal == null ? -1 : journal.getRecordCount();
+        return new AutosaveService.Snapshot(FileUtils.encodeGameState(game, seconds, moveCount), () -> {
+            if (journal != null && journal.getRecordCount() == mark) {
+                try {
+                    journal.truncate();
+                } catch (IOException ex) {
+                    disableJournal(ex);
+                }
+            }
+        });
+    }
+
+    private void markDirty() {
+        if (autosave != null) {
+            autosave.markDirty();
+        }
+    }
+
+    private void journalCell(int row, int col) {
+        played = true;
+        markDirty();
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.recordCell(row, col, game.getGrid().isBlack(row, col));
+            journal.recordTick(seconds, moveCount);
+        } catch (IOException ex) {
+            disableJournal(ex);
+        }
+    }
+
+    /**
+     * @param save écrire l'état final (sortie en cours de partie) ou non
+     *             (partie gagnée, ou jamais jouée)
+     */
+    private void closeJournal(boolean save) {
+        if (autosave != null) {
+            if (save) {
+                autosave.saveNow();
+            }
+            autosave.close();
+            autosave = null;
+        }
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.close();
+        } catch (IOException ex) {
+            System.err.println("❌ Journal de partie : " + ex.getMessage());
+        }
+        journal = null;
+    }
+
+    // Sans journal, la sauvegarde automatique continue seule
+    private void disableJournal(IOException ex) {
+        System.err.println("❌ Journal de partie désactivé : " + ex.getMessage());
+        try {
+            if (journal != null) {
+                journal.close();
+            }
+        } catch (IOException ignored) {}
+        journal = null;
+    }
+
     private void showError(String message) {
         Alert alert = new Alert(Alert.AlertType.WARNING);
         alert.setTitle("⚠️ Attention");
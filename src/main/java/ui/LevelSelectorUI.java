@@ -2,6 +2,7 @@ package ui;
 
 import controller.HitoriGame;
 import javafx.animation.*;
+import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
@@ -12,6 +13,9 @@ import javafx.scene.control.ScrollPane;
 import javafx.scene.layout.*;
 import javafx.stage.Stage;
 import javafx.util.Duration;
+import model.Grid;
+
+import java.util.concurrent.CompletableFuture;
 
 public class LevelSelectorUI {
 
@@ -327,23 +331,36 @@ public class LevelSelectorUI {
     }
 
     private void loadLevel(Stage stage, String level) {
-        try {
-            game.loadGrid(level);
-            GameUI gameUI = new GameUI(game);
-            
-            FadeTransition fadeOut = new FadeTransition(Duration.millis(300), stage.getScene().getRoot());
-            fadeOut.setFromValue(1.0);
-            fadeOut.setToValue(0.0);
-            fadeOut.setOnFinished(e -> gameUI.show(stage));
-            fadeOut.play();
-            
-        } catch (Exception ex) {
-            Alert alert = new Alert(Alert.AlertType.ERROR);
-            alert.setTitle("❌ Erreur");
-            alert.setHeaderText("Impossible de charger le niveau");
-            alert.setContentText("Fichier de grille introuvable : " + level);
-            alert.showAndWait();
-        }
+        // La lecture de la grille se fait pendant le fondu, hors du thread
+        // JavaFX ; la grille est ensuite installée sur le thread JavaFX
+        CompletableFuture<Grid> loading = game.loadGridAsync(level, Platform::runLater);
+        CompletableFuture<Void> faded = fadeOut(stage);
+
+        loading.thenCombine(faded, (grid, done) -> grid).whenComplete((grid, error) -> Platform.runLater(() -> {
+            if (error != null) {
+                stage.getScene().getRoot().setOpacity(1.0);
+                Alert alert = new Alert(Alert.AlertType.ERROR);
+                alert.setTitle("❌ Erreur");
+                alert.setHeaderText("Impossible de charger le niveau");
+                alert.setContentText("Fichier de grille introuvable : " + level);
+                alert.showAndWait();
+                return;
+            }
+            new GameUI(game).show(stage);
+        }));
+    }
+
+    /**
+     * Fondu de sortie de l'écran courant ; le futur se termine avec le fondu
+     */
+    private CompletableFuture<Void> fadeOut(Stage stage) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        FadeTransition fadeOut = new FadeTransition(Duration.millis(300), stage.getScene().getRoot());
+        fadeOut.setFromValue(1.0);
+        fadeOut.setToValue(0.0);
+        fadeOut.setOnFinished(e -> done.complete(null));
+        fadeOut.play();
+        return done;
     }
 
     private void showScoreboard(Stage stage) {
@@ -352,16 +369,22 @@ public class LevelSelectorUI {
     }
 
     private void loadSavedGame(Stage stage) {
-        try {
-            util.FileUtils.GameState savedState = util.FileUtils.loadGameState();
-            if (savedState != null) {
-                GameUI gameUI = new GameUI(savedState.game, savedState.seconds, savedState.moveCount);
-                
-                FadeTransition fadeOut = new FadeTransition(Duration.millis(300), stage.getScene().getRoot());
-                fadeOut.setFromValue(1.0);
-                fadeOut.setToValue(0.0);
-                fadeOut.setOnFinished(e -> gameUI.show(stage));
-                fadeOut.play();
+        // Comme pour un niveau : lecture de la sauvegarde pendant le fondu
+        CompletableFuture<util.FileUtils.GameState> loading = util.FileUtils.loadGameStateAsync();
+        CompletableFuture<Void> faded = fadeOut(stage);
+
+        loading.thenCombine(faded, (savedState, done) -> savedState).whenComplete((savedState, error) -> Platform.runLater(() -> {
+            if (savedState != null && error == null) {
+                new GameUI(savedState.game, savedState.seconds, savedState.moveCount).show(stage);
+                return;
+            }
+            stage.getScene().getRoot().setOpacity(1.0);
+            if (error != null) {
+                Alert alert = new Alert(Alert.AlertType.ERROR);
+                alert.setTitle("❌ Erreur");
+                alert.setHeaderText("Impossible de charger la partie");
+                alert.setContentText(error.getCause() != null ? error.getCause().getMessage() : error.getMessage());
+                alert.showAndWait();
             } else {
                 Alert alert = new Alert(Alert.AlertType.WARNING);
                 alert.setTitle("⚠️ Aucune sauvegarde");
@@ -369,13 +392,7 @@ public class LevelSelectorUI {
                 alert.setContentText("Aucune partie sauvegardée trouvée.");
                 alert.showAndWait();
             }
-        } catch (Exception ex) {
-            Alert alert = new Alert(Alert.AlertType.ERROR);
-            alert.setTitle("❌ Erreur");
-            alert.setHeaderText("Impossible de charger la partie");
-            alert.setContentText(ex.getMessage());
-            alert.showAndWait();
-        }
+        }));
     }
 
     private void showRules() {
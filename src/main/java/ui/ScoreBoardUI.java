@@ -13,14 +13,20 @@ import javafx.scene.paint.Color;
 import javafx.scene.shape.Circle;
 import javafx.stage.Stage;
 import javafx.util.Duration;
+import model.ScoreEntry;
 import util.FileUtils;
+import util.Leaderboard;
 
+import java.io.IOException;
 import java.util.List;
 
 public class ScoreBoardUI {
 
     private HitoriGame game;
     private Integer lastScore;
+    // Score de la partie qui vient d'être gagnée, null depuis le menu
+    private ScoreEntry lastEntry;
+    private String level = Leaderboard.ALL_LEVELS;
 
     public ScoreBoardUI(int lastScore) {
         this.lastScore = lastScore;
@@ -33,6 +39,21 @@ public class ScoreBoardUI {
         this.lastScore = null;
     }
 
+    /**
+     * Enregistre le score d'une partie gagnée et affiche le classement de
+     * son niveau
+     */
+    public ScoreBoardUI(HitoriGame game, int seconds, int moveCount) {
+        this.game = game;
+        this.lastScore = seconds;
+        if (game.getLevel() != null) {
+            this.level = game.getLevel();
+        }
+        this.lastEntry = new ScoreEntry(System.getProperty("user.name", "Joueur"),
+            game.getLevel(), seconds, moveCount, System.currentTimeMillis());
+        FileUtils.saveScore(lastEntry);
+    }
+
     public void show(Stage stage) {
         stage.setTitle("🏆 Hitori - Meilleurs Scores");
 
@@ -68,7 +89,9 @@ public class ScoreBoardUI {
         rotate.setAutoReverse(true);
         rotate.play();
 
-        Label title = new Label("MEILLEURS SCORES");
+        Label title = new Label(level.equals(Leaderboard.ALL_LEVELS)
+            ? "MEILLEURS SCORES"
+            : "MEILLEURS SCORES - " + level.toUpperCase());
         title.getStyleClass().add("scoreboard-title");
 
         Label subtitle = new Label(lastScore != null ? 
@@ -77,23 +100,64 @@ public class ScoreBoardUI {
         subtitle.getStyleClass().add("scoreboard-subtitle");
 
         header.getChildren().addAll(trophy, title, subtitle);
+        if (lastEntry != null) {
+            header.getChildren().add(createPlacementLabel());
+        }
         return header;
     }
 
+    /**
+     * Rang et percentile de la partie gagnée, avec les temps voisins
+     */
+    private Label createPlacementLabel() {
+        Leaderboard leaderboard;
+        try {
+            leaderboard = Leaderboard.getDefault();
+        } catch (IOException e) {
+            return new Label("Classement indisponible");
+        }
+        long total = leaderboard.count(level);
+        long rank = leaderboard.rank(level, lastEntry.getScore());
+        double percentile = leaderboard.percentile(level, lastEntry.getScore());
+
+        StringBuilder text = new StringBuilder(String.format(
+            "Classement : %d%s sur %d · meilleur que %.0f %% des parties",
+            rank, rank == 1 ? "er" : "e", total, percentile));
+        int[] around = leaderboard.scoresAround(level, rank, 2);
+        if (around.length > 1) {
+            text.append("\nAutour de vous :");
+            for (int seconds : around) {
+                text.append(seconds == lastEntry.getScore() ? "  [" + formatTime(seconds) + "]" : "  " + formatTime(seconds));
+            }
+        }
+
+        Label placement = new Label(text.toString());
+        placement.getStyleClass().add("scoreboard-subtitle");
+        placement.setStyle("-fx-font-size: 16px;");
+        return placement;
+    }
+
     private VBox createScoresContainer() {
         VBox container = new VBox(15);
         container.setAlignment(Pos.CENTER);
         container.getStyleClass().add("scores-container");
 
-        List<Integer> scores = FileUtils.loadTopScores(10);
+        List<ScoreEntry> scores = FileUtils.loadTopScores(level, 10);
 
         if (scores.isEmpty()) {
             Label emptyLabel = new Label("Aucun score enregistré pour le moment");
             emptyLabel.getStyleClass().add("empty-scores-label");
             container.getChildren().add(emptyLabel);
         } else {
+            boolean highlighted = false;
             for (int i = 0; i < scores.size(); i++) {
-                HBox scoreRow = createScoreRow(i + 1, scores.get(i), scores.get(i).equals(lastScore));
+                ScoreEntry entry = scores.get(i);
+                // Sans partie gagnée, le premier temps égal au dernier score est mis en avant
+                boolean current = !highlighted && (lastEntry != null
+                    ? entry.compareTo(lastEntry) == 0
+                    : lastScore != null && entry.getScore() == lastScore);
+                highlighted |= current;
+                HBox scoreRow = createScoreRow(i + 1, entry, current);
                 container.getChildren().add(scoreRow);
                 
                 FadeTransition fade = new FadeTransition(Duration.millis(300 + i * 100), scoreRow);
@@ -111,7 +175,7 @@ public class ScoreBoardUI {
         return container;
     }
 
-    private HBox createScoreRow(int rank, int score, boolean isCurrentScore) {
+    private HBox createScoreRow(int rank, ScoreEntry entry, boolean isCurrentScore) {
         HBox row = new HBox(20);
         row.setAlignment(Pos.CENTER_LEFT);
         row.setPrefWidth(550);
@@ -148,13 +212,16 @@ public class ScoreBoardUI {
         Label medalLabel = new Label(medal);
         medalLabel.setStyle("-fx-font-size: 30px;");
 
-        Label timeLabel = new Label(formatTime(score));
+        Label timeLabel = new Label(formatTime(entry.getScore()));
         timeLabel.getStyleClass().add("score-time-label");
 
+        Label playerLabel = new Label(entry.getPlayerName());
+        playerLabel.setStyle("-fx-font-size: 16px; -fx-text-fill: #475569;");
+
         Region spacer = new Region();
         HBox.setHgrow(spacer, Priority.ALWAYS);
 
-        row.getChildren().addAll(badgeStack, medalLabel, timeLabel, spacer);
+        row.getChildren().addAll(badgeStack, medalLabel, timeLabel, playerLabel, spacer);
 
         if (isCurrentScore) {
             Label newLabel = new Label("✨ NOUVEAU");
@@ -0,0 +1,143 @@
+package util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Sauvegarde automatique regroupée et en arrière-plan.
+ *
+ * Chaque changement d'état est seulement signalé (markDirty). Au plus une
+ * sauvegarde par intervalle est déclenchée : l'état est capturé sur le
+ * thread propriétaire de la partie (le thread JavaFX), le seul qui la
+ * modifie, puis écrit sur un thread virtuel dans un fichier temporaire
+ * renommé atomiquement sur la cible. Les écritures sont enchaînées dans
+ * l'ordre des captures ; l'action jointe à une capture est rappelée sur le
+ * thread propriétaire une fois cette capture écrite.
+ */
+public class AutosaveService implements AutoCloseable {
+
+    private final Path target;
+    private final long intervalNanos;
+    private final Executor ownerThread;
+    private final Supplier<Snapshot> capture;
+
+    private boolean dirty;
+    private boolean scheduled;
+    private boolean closed;
+    private long lastCapture;
+    // Dernière écriture lancée, pour enchaîner les suivantes dans l'ordre
+    private CompletableFuture<Void> lastWrite = CompletableFuture.completedFuture(null);
+
+    /**
+     * État capturé : les octets à écrire et l'action à rappeler une fois
+     * qu'ils sont sur disque (ou null)
+     */
+    public static final class Snapshot {
+        private final ByteBuffer data;
+        private final Runnable onSaved;
+
+        public Snapshot(ByteBuffer data, Runnable onSaved) {
+            this.data = data;
+            this.onSaved = onSaved;
+        }
+    }
+
+    /**
+     * @param ownerThread exécute les captures et leurs rappels (Platform::runLater pour l'interface)
+     * @param capture     état à écrire, appelé sur le thread propriétaire
+     */
+    public AutosaveService(Path target, long intervalMillis, Executor ownerThread, Supplier<Snapshot> capture) {
+        this.target = target;
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+        this.ownerThread = ownerThread;
+        this.capture = capture;
+        this.lastCapture = System.nanoTime() - intervalNanos;
+    }
+
+    /**
+     * Signale un changement ; la sauvegarde suivra au plus tard après
+     * l'intervalle. Appel en temps constant, sans entrée/sortie.
+     */
+    public synchronized void markDirty() {
+        if (closed) {
+            return;
+        }
+        dirty = true;
+        if (scheduled) {
+            return;
+        }
+        scheduled = true;
+        long delay = Math.max(0, lastCapture + intervalNanos - System.nanoTime());
+        BackgroundTasks.executor().execute(() -> {
+            try {
+                TimeUnit.NANOSECONDS.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            ownerThread.execute(this::captureIfDirty);
+        });
+    }
+
+    /**
+     * Capture et écrit l'état immédiatement (à appeler sur le thread
+     * propriétaire) ; le futur se termine une fois le fichier en place
+     */
+    public CompletableFuture<Void> saveNow() {
+        synchronized (this) {
+            dirty = false;
+        }
+        return captureAndWrite();
+    }
+
+    private void captureIfDirty() {
+        synchronized (this) {
+            scheduled = false;
+            if (!dirty || closed) {
+                return;
+            }
+            dirty = false;
+            // Avant de relâcher le moniteur : un markDirty concurrent attend l'intervalle suivant
+            lastCapture = System.nanoTime();
+        }
+        captureAndWrite();
+    }
+
+    private CompletableFuture<Void> captureAndWrite() {
+        Snapshot snapshot = capture.get();
+        synchronized (this) {
+            lastCapture = System.nanoTime();
+            lastWrite = lastWrite
+                .handle((ignored, error) -> null)
+                .thenRunAsync(() -> write(snapshot.data), BackgroundTasks.executor());
+            if (snapshot.onSaved != null) {
+                lastWrite.thenRun(() -> ownerThread.execute(snapshot.onSaved));
+            }
+            return lastWrite;
+        }
+    }
+
+    private void write(ByteBuffer data) {
+        try {
+            FileUtils.writeAtomically(target, data);
+        } catch (IOException e) {
+            System.err.println("❌ Sauvegarde automatique impossible : " + e.getMessage());
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Plus aucune sauvegarde programmée après cet appel ; les écritures déjà
+     * lancées se terminent normalement
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        dirty = false;
+    }
+}
@@ -0,0 +1,21 @@
+package util;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Exécuteur partagé des entrées/sorties en arrière-plan (chargements,
+ * préchargements, sauvegardes, requêtes du mode serveur) : un thread virtuel
+ * par tâche, pour ne jamais bloquer le thread JavaFX ni immobiliser un thread
+ * système sur un disque ou un client lent.
+ */
+public final class BackgroundTasks {
+
+    private static final ExecutorService EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    private BackgroundTasks() {}
+
+    public static ExecutorService executor() {
+        return EXECUTOR;
+    }
+}
@@ -0,0 +1,149 @@
+package util;
+
+import controller.HitoriGame;
+import model.Grid;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Format binaire versionné des sauvegardes.
+ *
+ * En-tête : "HITO", version (short), niveau (short + UTF-8), taille, temps,
+ * nombre de coups (int), largeur en bits des chiffres (byte). Suivent les
+ * chiffres tassés sur cette largeur puis l'état noir/blanc en bitmap, tous
+ * deux en mots de 64 bits. Le fichier, petit, est lu d'un bloc en mémoire
+ * (une projection le garderait verrouillé sous Windows, empêchant la
+ * sauvegarde suivante de le remplacer). Toute longueur lue est vérifiée
+ * avant usage : un fichier corrompu donne une IOException.
+ */
+final class BinarySave {
+
+    static final int MAGIC = 0x4849544F; // "HITO"
+    static final short VERSION = 1;
+
+    private BinarySave() {}
+
+    /**
+     * Vrai si le fichier commence par l'en-tête du format binaire
+     */
+    static boolean isBinary(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(4);
+            while (header.hasRemaining() && channel.read(header) >= 0) {}
+            return !header.hasRemaining() && header.getInt(0) == MAGIC;
+        }
+    }
+
+    static void write(HitoriGame game, int seconds, int moveCount, Path path) throws IOException {
+        FileUtils.writeAtomically(path, encode(game, seconds, moveCount));
+    }
+
+    /**
+     * Sauvegarde complète en mémoire, prête à être écrite
+     */
+    static ByteBuffer encode(HitoriGame game, int seconds, int moveCount) {
+        Grid grid = game.getGrid();
+        int size = grid.getSize();
+        int cells = size * size;
+        int width = Math.max(1, 32 - Integer.numberOfLeadingZeros(grid.getMaxValue()));
+        byte[] level = game.getLevel() == null ? new byte[0] : game.getLevel().getBytes(StandardCharsets.UTF_8);
+
+        long[] values = new long[(int) (((long) cells * width + 63) >>> 6)];
+        long[] states = new long[(cells + 63) >>> 6];
+        for (int k = 0; k < cells; k++) {
+            long value = grid.getValue(k / size, k % size);
+            long bit = (long) k * width;
+            int word = (int) (bit >>> 6);
+            int offset = (int) (bit & 63);
+            values[word] |= value << offset;
+            if (offset + width > 64) {
+                values[word + 1] |= value >>> (64 - offset);
+            }
+            if (grid.isBlack(k / size, k % size)) {
+                states[k >>> 6] |= 1L << k;
+            }
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(4 + 2 + 2 + level.length + 12 + 1
+            + 8 * (values.length + states.length));
+        buffer.putInt(MAGIC).putShort(VERSION)
+            .putShort((short) level.length).put(level)
+            .putInt(size).putInt(seconds).putInt(moveCount)
+            .put((byte) width);
+        buffer.asLongBuffer().put(values).put(states);
+        buffer.position(buffer.limit()).flip();
+        return buffer;
+    }
+
+    static FileUtils.GameState read(Path path) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Sauvegarde invalide : " + path);
+            }
+            short version = buffer.getShort();
+            if (version != VERSION) {
+                throw new IOException("Version de sauvegarde non prise en charge : " + version);
+            }
+            int levelLength = buffer.getShort() & 0xFFFF;
+            if (levelLength > buffer.remaining()) {
+                throw new IOException("Sauvegarde corrompue (niveau) : " + path);
+            }
+            byte[] levelBytes = new byte[levelLength];
+            buffer.get(levelBytes);
+            int size = buffer.getInt();
+            int seconds = buffer.getInt();
+            int moveCount = buffer.getInt();
+            int width = buffer.get();
+            if (size <= 0 || size > Short.MAX_VALUE || seconds < 0 || moveCount < 0 || width <= 0 || width > 15) {
+                throw new IOException("Sauvegarde corrompue (en-tête) : " + path);
+            }
+
+            int cells = size * size;
+            long valueWords = ((long) cells * width + 63) >>> 6;
+            long stateWords = (cells + 63L) >>> 6;
+            if (8 * (valueWords + stateWords) != buffer.remaining()) {
+                throw new IOException("Sauvegarde corrompue (" + buffer.remaining() + " octets de données pour une grille de "
+                    + size + ") : " + path);
+            }
+            long[] values = new long[(int) valueWords];
+            long[] states = new long[(int) stateWords];
+            buffer.slice().asLongBuffer().get(values).get(states);
+
+            long mask = (1L << width) - 1;
+            Grid grid = new Grid(size);
+            for (int k = 0; k < cells; k++) {
+                long bit = (long) k * width;
+                int word = (int) (bit >>> 6);
+                int offset = (int) (bit & 63);
+                long value = values[word] >>> offset;
+                if (offset + width > 64) {
+                    value |= values[word + 1] << (64 - offset);
+                }
+                grid.setCell(k / size, k % size, (int) (value & mask));
+            }
+            for (int w = 0; w < states.length; w++) {
+                for (long bits = states[w]; bits != 0; bits &= bits - 1) {
+                    int k = (w << 6) + Long.numberOfTrailingZeros(bits);
+                    grid.setBlack(k / size, k % size, true);
+                }
+            }
+
+            String level = levelBytes.length == 0 ? null : new String(levelBytes, StandardCharsets.UTF_8);
+            HitoriGame game = new HitoriGame();
+            game.setGrid(grid);
+            game.setLevel(level);
+            return new FileUtils.GameState(game, seconds, moveCount, level);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Sauvegarde tronquée : " + path, e);
+        }
+    }
+}
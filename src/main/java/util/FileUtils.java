@@ -3,13 +3,26 @@ package util;
 import controller.HitoriGame;
 import model.Cell;
 import model.Grid;
+import model.ScoreEntry;
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 public class FileUtils {
 
     private static final String SCORE_FILE = "src/main/resources/scores.txt";
+    private static final String SCORE_LOG_FILE = "src/main/resources/scores.log";
+    private static final String SCORE_INDEX_FILE = "src/main/resources/scores.idx";
     private static final String SAVE_FILE = "src/main/resources/savegame.dat";
+    private static final String JOURNAL_FILE = "src/main/resources/savegame.journal";
 
     public static class GameState {
         public HitoriGame game;
@@ -36,68 +49,149 @@ public class FileUtils {
             throw new IOException("Fichier de grille introuvable : " + path);
         }
 
-        BufferedReader reader = new BufferedReader(new FileReader(file));
-        List<int[]> rows = new ArrayList<>();
-        String line;
-        
-        while ((line = reader.readLine()) != null) {
-            String[] tokens = line.trim().split("\\s+");
-            int[] row = new int[tokens.length];
-            for (int i = 0; i < tokens.length; i++) {
-                row[i] = Integer.parseInt(tokens[i]);
-            }
-            rows.add(row);
-        }
-        reader.close();
+        return loadGridFromPath(file.toPath());
+    }
 
-        Grid grid = new Grid(rows.size());
-        for (int i = 0; i < rows.size(); i++) {
-            for (int j = 0; j < rows.get(i).length; j++) {
-                grid.setCell(i, j, rows.get(i)[j]);
+    /**
+     * Charger une grille depuis un chemin quelconque
+     */
+    public static Grid loadGridFromPath(Path path) throws IOException {
+        return GridParser.parse(path);
+    }
+
+    /**
+     * Écrire les chiffres d'une grille au format des fichiers grid_*.txt
+     */
+    public static void saveGridToPath(Grid grid, Path path) throws IOException {
+        int size = grid.getSize();
+        StringBuilder sb = new StringBuilder(size * size * 3);
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                if (j > 0) sb.append(' ');
+                sb.append(grid.getValue(i, j));
             }
+            sb.append('\n');
         }
-        return grid;
+        Files.writeString(path, sb);
     }
 
     /**
-     * Sauvegarder l'état complet de la partie
+     * Sauvegarder l'état complet de la partie. Le verrou du journal est pris
+     * le temps de l'écriture : SaveLockedException si une autre instance du
+     * jeu a une partie en cours sur cette sauvegarde.
      */
     public static void saveGameState(HitoriGame game, int seconds, int moveCount) throws IOException {
-        File saveDir = new File("src/main/resources");
-        if (!saveDir.exists()) {
-            saveDir.mkdirs();
+        Path journal = Path.of(JOURNAL_FILE);
+        if (journal.getParent() != null) {
+            Files.createDirectories(journal.getParent());
         }
+        try (FileChannel channel = MoveJournal.lock(journal)) {
+            saveGameState(game, seconds, moveCount, Path.of(SAVE_FILE));
+            // La sauvegarde complète rend le journal en cours inutile
+            channel.truncate(0);
+        }
+    }
 
-        try (PrintWriter writer = new PrintWriter(new FileWriter(SAVE_FILE))) {
-            Grid grid = game.getGrid();
-            int size = grid.getSize();
-            
-            // Ligne 1 : Métadonnées
-            writer.println(size + " " + seconds + " " + moveCount);
-            
-            // Lignes suivantes : État de chaque cellule
-            for (int i = 0; i < size; i++) {
-                for (int j = 0; j < size; j++) {
-                    Cell cell = grid.getCell(i, j);
-                    String state = cell.isBlack() ? "B" : "W";
-                    writer.print(cell.getValue() + " " + state);
-                    if (j < size - 1) writer.print(" ");
+    /**
+     * Sauvegarder l'état complet de la partie dans un fichier donné (format binaire)
+     */
+    public static void saveGameState(HitoriGame game, int seconds, int moveCount, Path saveFile) throws IOException {
+        if (saveFile.getParent() != null) {
+            Files.createDirectories(saveFile.getParent());
+        }
+        BinarySave.write(game, seconds, moveCount, saveFile);
+    }
+
+    /**
+     * État de la partie encodé au format de sauvegarde, sans écriture
+     */
+    public static ByteBuffer encodeGameState(HitoriGame game, int seconds, int moveCount) {
+        return BinarySave.encode(game, seconds, moveCount);
+    }
+
+    /**
+     * Écrit data dans un fichier temporaire du même dossier puis le renomme
+     * en target : un arrêt pendant l'écriture laisse l'ancien fichier intact
+     */
+    public static void writeAtomically(Path target, ByteBuffer data) throws IOException {
+        Path directory = target.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                ByteBuffer source = data.duplicate();
+                while (source.hasRemaining()) {
+                    channel.write(source);
                 }
-                writer.println();
+                channel.force(true);
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
             }
+        } finally {
+            Files.deleteIfExists(temp);
         }
     }
 
+    public static Path getSavePath() {
+        return Path.of(SAVE_FILE);
+    }
+
+    /**
+     * Journal des coups de la partie en cours, adossé à la sauvegarde
+     */
+    public static MoveJournal openJournal() {
+        return new MoveJournal(Path.of(SAVE_FILE), Path.of(JOURNAL_FILE));
+    }
+
     /**
      * Charger l'état complet de la partie
      */
     public static GameState loadGameState() throws IOException {
-        File saveFile = new File(SAVE_FILE);
-        if (!saveFile.exists()) {
+        return loadGameState(Path.of(SAVE_FILE), Path.of(JOURNAL_FILE));
+    }
+
+    /**
+     * Charger l'état de la partie sur un thread d'arrière-plan (null si
+     * aucune sauvegarde)
+     */
+    public static CompletableFuture<GameState> loadGameStateAsync() {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return loadGameState();
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, BackgroundTasks.executor());
+    }
+
+    /**
+     * Charger une sauvegarde complète puis rejouer son journal. Une ancienne
+     * sauvegarde texte est relue puis réécrite au format binaire.
+     */
+    public static GameState loadGameState(Path snapshot, Path journal) throws IOException {
+        if (!Files.exists(snapshot)) {
             return null;
         }
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(saveFile))) {
+        GameState state;
+        if (BinarySave.isBinary(snapshot)) {
+            state = BinarySave.read(snapshot);
+        } else {
+            state = loadTextGameState(snapshot);
+            BinarySave.write(state.game, state.seconds, state.moveCount, snapshot);
+        }
+        MoveJournal.replay(journal, state);
+        return state;
+    }
+
+    /**
+     * Ancien format texte : taille, temps et coups, puis « valeur B|W » par case
+     */
+    private static GameState loadTextGameState(Path snapshot) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(snapshot)) {
             // Lire les métadonnées
             String[] metadata = reader.readLine().split(" ");
             int size = Integer.parseInt(metadata[0]);
@@ -126,44 +220,74 @@ public class FileUtils {
             HitoriGame game = new HitoriGame();
             game.setGrid(grid);
 
+            // Le format texte ne stocke pas le niveau : on le déduit de la taille
             String level = size == 5 ? "easy" : size == 7 ? "medium" : "hard";
+            game.setLevel(level);
 
             return new GameState(game, seconds, moveCount, level);
         }
     }
 
     /**
-     * Sauvegarder un score
+     * Journal des scores (voir Leaderboard)
+     */
+    public static Path getScoreLogPath() {
+        return Path.of(SCORE_LOG_FILE);
+    }
+
+    /**
+     * Index du classement, reconstruit à partir du journal s'il manque
+     */
+    public static Path getScoreIndexPath() {
+        return Path.of(SCORE_INDEX_FILE);
+    }
+
+    /**
+     * Sauvegarder un score sans niveau ni joueur connus
      */
     public static void saveScore(int score) {
-        List<Integer> scores = loadTopScores(10);
-        scores.add(score);
-        Collections.sort(scores);
-        if (scores.size() > 10) {
-            scores = scores.subList(0, 10);
-        }
+        saveScore(new ScoreEntry("Joueur", null, score, 0, System.currentTimeMillis()));
+    }
 
+    /**
+     * Sauvegarder un score dans le classement de son niveau
+     */
+    public static void saveScore(ScoreEntry entry) {
         try {
-            File scoreDir = new File("src/main/resources");
-            if (!scoreDir.exists()) {
-                scoreDir.mkdirs();
-            }
-
-            BufferedWriter writer = new BufferedWriter(new FileWriter(SCORE_FILE));
-            for (Integer s : scores) {
-                writer.write(s.toString());
-                writer.newLine();
-            }
-            writer.close();
+            Leaderboard.getDefault().submit(entry);
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
     /**
-     * Charger les meilleurs scores
+     * Charger les meilleurs temps, tous niveaux confondus
      */
     public static List<Integer> loadTopScores(int limit) {
+        List<Integer> scores = new ArrayList<>();
+        for (ScoreEntry entry : loadTopScores(Leaderboard.ALL_LEVELS, limit)) {
+            scores.add(entry.getScore());
+        }
+        return scores;
+    }
+
+    /**
+     * Charger les meilleurs scores d'un niveau
+     */
+    public static List<ScoreEntry> loadTopScores(String level, int limit) {
+        try {
+            return Leaderboard.getDefault().topScores(level, limit);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Temps de l'ancien fichier de scores (un par ligne), repris dans le
+     * journal des scores à sa création
+     */
+    static List<Integer> loadLegacyScores() {
         List<Integer> scores = new ArrayList<>();
         File file = new File(SCORE_FILE);
         if (!file.exists()) return scores;
@@ -178,11 +302,6 @@ public class FileUtils {
         } catch (IOException e) {
             e.printStackTrace();
         }
-
-        Collections.sort(scores);
-        if (scores.size() > limit) {
-            scores = scores.subList(0, limit);
-        }
         return scores;
     }
-}
\ No newline at end of file
+}
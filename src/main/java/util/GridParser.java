@@ -0,0 +1,169 @@
+package util;
+
+import exception.GridFormatException;
+import model.Grid;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Lecture des fichiers de grille octet par octet, en une seule passe :
+ * les chiffres sont accumulés directement en entiers, sans chaîne ni
+ * expression régulière, et chaque ligne est versée dans la grille dès
+ * qu'elle est complète. La taille est donnée par le nombre de valeurs de la
+ * première ligne ; toute ligne de longueur différente, toute ligne en trop
+ * ou en moins et tout caractère inattendu sont signalés avec leur position.
+ */
+public final class GridParser {
+
+    private static final int CHUNK = 1 << 16;
+
+    private Grid grid;
+    // Taille de la grille, connue à la fin de la première ligne
+    private int size = -1;
+    private int[] row = new int[16];
+    private int count;
+    private int rows;
+
+    private int value;
+    private boolean inNumber;
+    private int line = 1;
+    private int column;
+    private int tokenColumn;
+    private boolean start = true;
+
+    private GridParser() {}
+
+    public static Grid parse(Path path) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            return parse(in);
+        }
+    }
+
+    public static Grid parse(InputStream in) throws IOException {
+        GridParser parser = new GridParser();
+        byte[] chunk = new byte[CHUNK];
+        int read;
+        while ((read = in.read(chunk)) >= 0) {
+            parser.feed(chunk, 0, read);
+        }
+        return parser.finish();
+    }
+
+    public static Grid parse(ByteBuffer buffer) throws GridFormatException {
+        GridParser parser = new GridParser();
+        if (buffer.hasArray()) {
+            parser.feed(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+        } else {
+            ByteBuffer source = buffer.duplicate();
+            byte[] chunk = new byte[Math.min(CHUNK, source.remaining())];
+            while (source.hasRemaining()) {
+                int length = Math.min(chunk.length, source.remaining());
+                source.get(chunk, 0, length);
+                parser.feed(chunk, 0, length);
+            }
+        }
+        return parser.finish();
+    }
+
+    private void feed(byte[] bytes, int offset, int length) throws GridFormatException {
+        int end = offset + length;
+        int k = offset;
+        // Marque d'ordre UTF-8 éventuelle en tête de fichier
+        if (start && length > 0) {
+            start = false;
+            if (length >= 3 && (bytes[k] & 0xFF) == 0xEF && (bytes[k + 1] & 0xFF) == 0xBB && (bytes[k + 2] & 0xFF) == 0xBF) {
+                k += 3;
+            }
+        }
+
+        // Boucle sur des copies locales de l'état, recopiées à chaque fin de valeur
+        int v = value;
+        boolean number = inNumber;
+        int col = column;
+        for (; k < end; k++) {
+            byte b = bytes[k];
+            col++;
+            int digit = b - '0';
+            if (digit >= 0 && digit <= 9) {
+                if (!number) {
+                    number = true;
+                    tokenColumn = col;
+                    v = digit;
+                } else if ((v = v * 10 + digit) > Short.MAX_VALUE) {
+                    throw new GridFormatException("valeur trop grande (max " + Short.MAX_VALUE + ")", line, tokenColumn);
+                }
+                continue;
+            }
+
+            value = v;
+            inNumber = number;
+            column = col;
+            if (b == ' ' || b == '\t' || b == '\r') {
+                endNumber();
+            } else if (b == '\n') {
+                endNumber();
+                endLine();
+                line++;
+                column = 0;
+            } else {
+                throw new GridFormatException("caractère inattendu '" + (char) (b & 0xFF) + "'", line, column);
+            }
+            number = false;
+            col = column;
+        }
+        value = v;
+        inNumber = number;
+        column = col;
+    }
+
+    private void endNumber() throws GridFormatException {
+        if (!inNumber) {
+            return;
+        }
+        inNumber = false;
+        if (size < 0) {
+            if (count == row.length) {
+                row = Arrays.copyOf(row, count * 2);
+            }
+        } else if (count == size) {
+            throw new GridFormatException("ligne trop longue, " + size + " valeurs attendues", line, tokenColumn);
+        }
+        row[count++] = value;
+    }
+
+    private void endLine() throws GridFormatException {
+        if (count == 0) {
+            // Lignes vides ignorées
+            return;
+        }
+        if (size < 0) {
+            size = count;
+            grid = new Grid(size);
+        } else if (count < size) {
+            throw new GridFormatException("ligne trop courte : " + count + " valeurs sur " + size, line, column);
+        }
+        if (rows == size) {
+            throw new GridFormatException("trop de lignes, la grille est de taille " + size, line, 1);
+        }
+        grid.setRow(rows++, row, count);
+        count = 0;
+    }
+
+    private Grid finish() throws GridFormatException {
+        column++;
+        endNumber();
+        endLine();
+        if (grid == null) {
+            throw new GridFormatException("fichier de grille vide", line, 1);
+        }
+        if (rows < size) {
+            throw new GridFormatException("grille incomplète : " + rows + " lignes sur " + size, line, column);
+        }
+        return grid;
+    }
+}
@@ -0,0 +1,450 @@
+package util;
+
+import exception.SaveLockedException;
+import model.ScoreEntry;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Classement par niveau.
+ *
+ * Chaque score est ajouté à la fin d'un journal texte (une ligne par score :
+ * date, niveau, joueur, temps, coups), sans jamais réécrire l'historique.
+ * En mémoire, chaque niveau garde ses capacity meilleurs scores dans un tas
+ * borné dont la racine est le moins bon : un ajout coûte O(log k) et une
+ * écriture de ligne, et topScores ne touche pas au disque.
+ *
+ * Chaque niveau a aussi son histogramme des temps (ScoreIndex) pour le rang
+ * et le percentile d'un temps. Tas et histogrammes sont régulièrement écrits
+ * dans un fichier d'index avec la position du journal qu'ils couvrent : à
+ * l'ouverture, seule la fin du journal est relue.
+ *
+ * Plusieurs threads et plusieurs instances du jeu peuvent ajouter des
+ * scores en même temps. Les scores soumis sont déposés dans une file sans
+ * verrou ; le premier thread qui obtient la main écrit toute la file en une
+ * seule écriture forcée sur disque, sous verrou de fichier exclusif, après
+ * avoir relu les lignes ajoutées entre-temps par les autres instances.
+ */
+public class Leaderboard {
+
+    // Classement toutes grilles confondues
+    public static final String ALL_LEVELS = "*";
+    private static final String UNKNOWN_LEVEL = "-";
+    private static final int DEFAULT_CAPACITY = 100;
+    // Scores ajoutés au journal entre deux écritures de l'index
+    private static final int CHECKPOINT_INTERVAL = 256;
+
+    static final int INDEX_MAGIC = 0x48494458; // "HIDX"
+    static final short INDEX_VERSION = 1;
+
+    private static Leaderboard defaultLeaderboard;
+
+    private final Path log;
+    private final Path indexFile;
+    private final int capacity;
+    private final Map<String, PriorityQueue<ScoreEntry>> heaps = new HashMap<>();
+    private final Map<String, ScoreIndex> indexes = new HashMap<>();
+    // Scores soumis, pas encore écrits
+    private final ConcurrentLinkedQueue<Pending> pending = new ConcurrentLinkedQueue<>();
+    // Octets du journal pris en compte, et scores depuis le dernier index écrit
+    private long logOffset;
+    private int sinceCheckpoint;
+
+    public Leaderboard(Path log, int capacity) throws IOException {
+        this(log, null, capacity);
+    }
+
+    /**
+     * @param indexFile index tenu à jour à côté du journal, ou null pour
+     *                  toujours relire tout le journal
+     */
+    public Leaderboard(Path log, Path indexFile, int capacity) throws IOException {
+        this.log = log;
+        this.indexFile = indexFile;
+        this.capacity = capacity;
+        if (indexFile == null || !readIndex()) {
+            heaps.clear();
+            indexes.clear();
+            logOffset = 0;
+        }
+        if (Files.exists(log)) {
+            try (FileChannel channel = FileChannel.open(log, StandardOpenOption.READ)) {
+                replayLog(channel);
+            }
+        }
+        if (sinceCheckpoint >= CHECKPOINT_INTERVAL) {
+            checkpoint();
+        }
+    }
+
+    /**
+     * Score en attente d'écriture ; written et error sont remplis sous le
+     * moniteur du classement
+     */
+    private static final class Pending {
+        private final ScoreEntry entry;
+        private boolean written;
+        private IOException error;
+
+        private Pending(ScoreEntry entry) {
+            this.entry = entry;
+        }
+    }
+
+    /**
+     * Classement du jeu (scores.log à côté de l'ancien scores.txt, dont les
+     * temps sont repris à la première ouverture)
+     */
+    public static synchronized Leaderboard getDefault() throws IOException {
+        if (defaultLeaderboard == null) {
+            Path log = FileUtils.getScoreLogPath();
+            boolean fresh = !Files.exists(log);
+            defaultLeaderboard = new Leaderboard(log, FileUtils.getScoreIndexPath(), DEFAULT_CAPACITY);
+            if (fresh) {
+                for (int seconds : FileUtils.loadLegacyScores()) {
+                    defaultLeaderboard.submit(new ScoreEntry("Joueur", null, seconds, 0, 0L));
+                }
+            }
+        }
+        return defaultLeaderboard;
+    }
+
+    /**
+     * Enregistre un score ; au retour, il est sur disque et dans les tas de
+     * son niveau et du classement général. Les scores soumis en même temps
+     * par d'autres threads partent dans la même écriture.
+     */
+    public void submit(ScoreEntry entry) throws IOException {
+        Pending request = new Pending(entry);
+        pending.add(request);
+        synchronized (this) {
+            if (!request.written) {
+                writePending();
+            }
+        }
+        if (request.error != null) {
+            throw request.error;
+        }
+    }
+
+    /**
+     * Écrit d'un bloc tous les scores en attente (moniteur tenu). Chaque
+     * score du lot repart avec son résultat, même sur une erreur imprévue.
+     */
+    private void writePending() {
+        List<Pending> batch = new ArrayList<>();
+        Pending next;
+        while ((next = pending.poll()) != null) {
+            batch.add(next);
+        }
+
+        IOException failure = null;
+        try {
+            append(batch);
+            for (Pending request : batch) {
+                offer(request.entry);
+                request.written = true;
+            }
+        } catch (IOException e) {
+            failure = e;
+        } catch (OverlappingFileLockException e) {
+            failure = new SaveLockedException("Journal des scores déjà ouvert par un autre classement de ce programme");
+        } catch (RuntimeException e) {
+            failure = new IOException("Score non enregistré : " + e, e);
+        } finally {
+            for (Pending request : batch) {
+                if (!request.written) {
+                    request.error = failure != null ? failure : new IOException("Score non enregistré");
+                    request.written = true;
+                }
+            }
+        }
+        if (failure != null) {
+            return;
+        }
+
+        sinceCheckpoint += batch.size();
+        if (sinceCheckpoint >= CHECKPOINT_INTERVAL) {
+            try {
+                checkpoint();
+            } catch (IOException e) {
+                // L'index n'est qu'un raccourci : il sera réécrit plus tard
+                System.err.println("❌ Index des scores : " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Ajoute les lignes du lot à la fin du journal, sous verrou exclusif
+     */
+    private void append(List<Pending> batch) throws IOException {
+        StringBuilder lines = new StringBuilder();
+        for (Pending request : batch) {
+            lines.append(format(request.entry));
+        }
+        if (log.getParent() != null) {
+            Files.createDirectories(log.getParent());
+        }
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            FileLock lock = channel.lock();
+            try {
+                // Scores des autres instances, puis fin de ligne si la dernière est tronquée
+                replayLog(channel);
+                if (logOffset < channel.size()) {
+                    lines.insert(0, '\n');
+                }
+                ByteBuffer bytes = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+                long position = channel.size();
+                while (bytes.hasRemaining()) {
+                    position += channel.write(bytes, position);
+                }
+                channel.force(false);
+                logOffset = position;
+            } finally {
+                lock.release();
+            }
+        }
+    }
+
+    /**
+     * Les k meilleurs scores du niveau (ALL_LEVELS pour tous), du meilleur
+     * au moins bon ; au plus capacity
+     */
+    public synchronized List<ScoreEntry> topScores(String level, int k) {
+        PriorityQueue<ScoreEntry> heap = heaps.get(level == null ? ALL_LEVELS : level);
+        if (heap == null) {
+            return new ArrayList<>();
+        }
+        List<ScoreEntry> sorted = new ArrayList<>(heap);
+        Collections.sort(sorted);
+        return sorted.size() > k ? new ArrayList<>(sorted.subList(0, k)) : sorted;
+    }
+
+    /**
+     * Nombre de scores enregistrés pour le niveau
+     */
+    public synchronized long count(String level) {
+        ScoreIndex index = indexes.get(level == null ? ALL_LEVELS : level);
+        return index == null ? 0 : index.count();
+    }
+
+    /**
+     * Rang de ce temps dans le niveau (1 = meilleur), en O(log n)
+     */
+    public synchronized long rank(String level, int seconds) {
+        ScoreIndex index = indexes.get(level == null ? ALL_LEVELS : level);
+        return index == null ? 1 : index.rank(seconds);
+    }
+
+    /**
+     * Part des scores du niveau plus lents que ce temps, en pourcentage
+     */
+    public synchronized double percentile(String level, int seconds) {
+        ScoreIndex index = indexes.get(level == null ? ALL_LEVELS : level);
+        return index == null ? 100.0 : index.percentile(seconds);
+    }
+
+    /**
+     * Temps classés autour du rang donné (radius de part et d'autre)
+     */
+    public synchronized int[] scoresAround(String level, long rank, int radius) {
+        ScoreIndex index = indexes.get(level == null ? ALL_LEVELS : level);
+        return index == null ? new int[0] : index.around(rank, radius);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Écrit l'index (tas et histogrammes) avec la position du journal qu'il
+     * couvre, en remplaçant atomiquement le précédent
+     */
+    public synchronized void checkpoint() throws IOException {
+        if (indexFile == null) {
+            return;
+        }
+        List<byte[]> names = new ArrayList<>();
+        int bytes = 4 + 2 + 8 + 4;
+        for (Map.Entry<String, ScoreIndex> level : indexes.entrySet()) {
+            byte[] name = level.getKey().getBytes(StandardCharsets.UTF_8);
+            names.add(name);
+            bytes += 2 + name.length + level.getValue().encodedSize() + 4;
+            for (ScoreEntry entry : heaps.get(level.getKey())) {
+                bytes += 8 + 2 + entry.getPlayerName().getBytes(StandardCharsets.UTF_8).length
+                    + 2 + levelName(entry).getBytes(StandardCharsets.UTF_8).length + 4 + 4;
+            }
+        }
+
+        ByteBuffer out = ByteBuffer.allocate(bytes);
+        out.putInt(INDEX_MAGIC).putShort(INDEX_VERSION).putLong(logOffset).putInt(indexes.size());
+        int n = 0;
+        for (Map.Entry<String, ScoreIndex> level : indexes.entrySet()) {
+            byte[] name = names.get(n++);
+            out.putShort((short) name.length).put(name);
+            level.getValue().write(out);
+            PriorityQueue<ScoreEntry> heap = heaps.get(level.getKey());
+            out.putInt(heap.size());
+            for (ScoreEntry entry : heap) {
+                byte[] player = entry.getPlayerName().getBytes(StandardCharsets.UTF_8);
+                byte[] entryLevel = levelName(entry).getBytes(StandardCharsets.UTF_8);
+                out.putLong(entry.getTimestamp())
+                    .putShort((short) player.length).put(player)
+                    .putShort((short) entryLevel.length).put(entryLevel)
+                    .putInt(entry.getScore()).putInt(entry.getMoves());
+            }
+        }
+        out.flip();
+        FileUtils.writeAtomically(indexFile, out);
+        sinceCheckpoint = 0;
+    }
+
+    /**
+     * Charge l'index s'il est lisible et correspond au journal actuel
+     */
+    private boolean readIndex() throws IOException {
+        if (!Files.exists(indexFile)) {
+            return false;
+        }
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(indexFile));
+        try {
+            if (in.getInt() != INDEX_MAGIC || in.getShort() != INDEX_VERSION) {
+                return false;
+            }
+            logOffset = in.getLong();
+            if (!Files.exists(log) || logOffset > Files.size(log)) {
+                return false;
+            }
+            int levels = in.getInt();
+            for (int l = 0; l < levels; l++) {
+                String level = readString(in);
+                indexes.put(level, ScoreIndex.read(in));
+                int entries = in.getInt();
+                for (int k = 0; k < entries; k++) {
+                    long timestamp = in.getLong();
+                    String player = readString(in);
+                    String entryLevel = readString(in);
+                    if (entryLevel.equals(UNKNOWN_LEVEL)) {
+                        entryLevel = null;
+                    }
+                    heap(level).add(new ScoreEntry(player, entryLevel, in.getInt(), in.getInt(), timestamp));
+                }
+            }
+            return true;
+        } catch (RuntimeException e) {
+            // Index tronqué ou corrompu : tout le journal sera relu
+            return false;
+        }
+    }
+
+    private static String levelName(ScoreEntry entry) {
+        return entry.getLevel() == null ? UNKNOWN_LEVEL : entry.getLevel();
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getShort() & 0xFFFF];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Relit le journal depuis logOffset ; une dernière ligne sans fin de
+     * ligne (écriture en cours ou interrompue) n'est pas comptée
+     */
+    private void replayLog(FileChannel channel) throws IOException {
+        ByteBuffer chunk = ByteBuffer.allocate(1 << 16);
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        long position = logOffset;
+        int read;
+        while ((read = channel.read(chunk, position)) > 0) {
+            position += read;
+            byte[] bytes = chunk.array();
+            int start = 0;
+            for (int k = 0; k < read; k++) {
+                if (bytes[k] == '\n') {
+                    line.write(bytes, start, k - start);
+                    ScoreEntry entry = parse(line.toString(StandardCharsets.UTF_8));
+                    if (entry != null) {
+                        offer(entry);
+                        sinceCheckpoint++;
+                    }
+                    logOffset += line.size() + 1;
+                    line.reset();
+                    start = k + 1;
+                }
+            }
+            line.write(bytes, start, read - start);
+            chunk.clear();
+        }
+    }
+
+    private void offer(ScoreEntry entry) {
+        if (entry.getLevel() != null) {
+            offer(entry.getLevel(), entry);
+        }
+        offer(ALL_LEVELS, entry);
+    }
+
+    private void offer(String level, ScoreEntry entry) {
+        indexes.computeIfAbsent(level, key -> new ScoreIndex()).add(entry.getScore());
+        PriorityQueue<ScoreEntry> heap = heap(level);
+        if (heap.size() < capacity) {
+            heap.add(entry);
+        } else if (entry.compareTo(heap.peek()) < 0) {
+            heap.poll();
+            heap.add(entry);
+        }
+    }
+
+    // Racine = moins bon score gardé
+    private PriorityQueue<ScoreEntry> heap(String level) {
+        return heaps.computeIfAbsent(level,
+            key -> new PriorityQueue<>(capacity + 1, Collections.reverseOrder()));
+    }
+
+    static String format(ScoreEntry entry) {
+        return entry.getTimestamp() + "\t"
+            + (entry.getLevel() == null ? UNKNOWN_LEVEL : clean(entry.getLevel())) + "\t"
+            + clean(entry.getPlayerName()) + "\t"
+            + entry.getScore() + "\t"
+            + entry.getMoves() + "\n";
+    }
+
+    /**
+     * Ligne du journal, ou null si elle est incomplète (écriture interrompue)
+     */
+    static ScoreEntry parse(String line) {
+        String[] fields = line.split("\t", -1);
+        if (fields.length != 5) {
+            return null;
+        }
+        try {
+            String level = fields[1].equals(UNKNOWN_LEVEL) ? null : fields[1];
+            return new ScoreEntry(fields[2], level,
+                Integer.parseInt(fields[3]), Integer.parseInt(fields[4]), Long.parseLong(fields[0]));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String clean(String text) {
+        return text.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+    }
+}
@@ -0,0 +1,204 @@
+package util;
+
+import controller.HitoriGame;
+import exception.SaveLockedException;
+import model.Grid;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Journal de partie en ajout seul, à côté de la sauvegarde complète.
+ *
+ * Chaque coup (et un top d'horloge régulier) devient un enregistrement
+ * binaire de 12 octets (type, a, b) écrit aussitôt à la fin du fichier :
+ * une sauvegarde coûte le même prix quelle que soit la taille de la grille.
+ * Le fichier est forcé sur disque par lots, et vidé dès qu'une sauvegarde
+ * complète écrite depuis couvre tous ses enregistrements.
+ *
+ * Les enregistrements portent des valeurs absolues (état d'une case, temps
+ * et nombre de coups) : rejouer le journal sur une sauvegarde plus récente
+ * que lui, après une coupure pendant le compactage, ne change rien.
+ *
+ * Le journal reste verrouillé tant qu'il est ouvert : une autre instance du
+ * jeu ne peut ni l'ouvrir ni réécrire la sauvegarde qu'il complète. Ouvrir
+ * une partie n'écrit rien : la sauvegarde existante (et son journal) n'est
+ * remplacée qu'au premier enregistrement de la nouvelle partie.
+ */
+public class MoveJournal implements Closeable {
+
+    public static final int RECORD_BYTES = 12;
+    // Case a noircie (b = 1) ou blanchie (b = 0)
+    public static final int CELL = 1;
+    // Temps de jeu a et nombre de coups b
+    public static final int TICK = 2;
+    // Toutes les cases redeviennent blanches (partie recommencée)
+    public static final int CLEAR = 3;
+
+    // Enregistrements écrits entre deux synchronisations disque
+    private static final int FSYNC_BATCH = 16;
+
+    private final Path snapshot;
+    private final Path journal;
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES);
+    private FileChannel channel;
+    // Partie à sauvegarder au premier enregistrement, null une fois fait
+    private HitoriGame pendingGame;
+    private int pendingSeconds;
+    private int pendingMoves;
+    private int size;
+    private int records;
+    private int unsynced;
+
+    public MoveJournal(Path snapshot, Path journal) {
+        this.snapshot = snapshot;
+        this.journal = journal;
+    }
+
+    /**
+     * Verrouille le journal pour cette partie ; SaveLockedException si une
+     * autre instance le tient. La sauvegarde complète de départ n'est écrite
+     * (et le journal vidé) qu'au premier enregistrement.
+     */
+    public void start(HitoriGame game, int seconds, int moveCount) throws IOException {
+        if (channel == null) {
+            channel = lock(journal);
+        }
+        pendingGame = game;
+        pendingSeconds = seconds;
+        pendingMoves = moveCount;
+    }
+
+    /**
+     * Ouvre le journal et prend son verrou exclusif, sans attendre
+     */
+    static FileChannel lock(Path journal) throws IOException {
+        FileChannel channel = FileChannel.open(journal, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock lock;
+        try {
+            lock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // Déjà verrouillé dans ce programme
+            lock = null;
+        }
+        if (lock == null) {
+            channel.close();
+            throw new SaveLockedException("Partie déjà ouverte dans une autre instance du jeu");
+        }
+        return channel;
+    }
+
+    public void recordCell(int row, int col, boolean black) throws IOException {
+        append(CELL, row * size + col, black ? 1 : 0);
+    }
+
+    public void recordTick(int seconds, int moveCount) throws IOException {
+        append(TICK, seconds, moveCount);
+    }
+
+    public void recordClear() throws IOException {
+        append(CLEAR, 0, 0);
+    }
+
+    private void append(int kind, int a, int b) throws IOException {
+        if (pendingGame != null) {
+            compact(pendingGame, pendingSeconds, pendingMoves);
+        }
+        record.clear();
+        record.putInt(kind).putInt(a).putInt(b).flip();
+        while (record.hasRemaining()) {
+            channel.write(record);
+        }
+        records++;
+        if (++unsynced >= FSYNC_BATCH) {
+            sync();
+        }
+    }
+
+    /**
+     * Force sur disque les enregistrements pas encore synchronisés
+     */
+    public void sync() throws IOException {
+        if (channel != null && unsynced > 0) {
+            channel.force(false);
+            unsynced = 0;
+        }
+    }
+
+    /**
+     * Nombre d'enregistrements depuis le dernier vidage
+     */
+    public int getRecordCount() {
+        return records;
+    }
+
+    /**
+     * Vide le journal, une fois que la sauvegarde complète contient tous
+     * ses enregistrements (écrite ailleurs, par exemple en arrière-plan)
+     */
+    public void truncate() throws IOException {
+        if (channel != null) {
+            channel.truncate(0);
+            channel.position(0);
+            channel.force(false);
+            records = 0;
+            unsynced = 0;
+        }
+    }
+
+    /**
+     * Réécrit la sauvegarde complète puis vide le journal (après start)
+     */
+    public void compact(HitoriGame game, int seconds, int moveCount) throws IOException {
+        FileUtils.saveGameState(game, seconds, moveCount, snapshot);
+        size = game.getGrid().getSize();
+        pendingGame = null;
+        truncate();
+    }
+
+    /**
+     * Ferme le journal et libère son verrou
+     */
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            sync();
+            channel.close();
+            channel = null;
+        }
+    }
+
+    /**
+     * Rejoue le journal sur une partie chargée depuis la sauvegarde complète.
+     * Un enregistrement tronqué en fin de fichier (arrêt brutal) est ignoré.
+     */
+    public static void replay(Path journal, FileUtils.GameState state) throws IOException {
+        if (!Files.exists(journal)) {
+            return;
+        }
+        Grid grid = state.game.getGrid();
+        int size = grid.getSize();
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(journal));
+
+        while (buffer.remaining() >= RECORD_BYTES) {
+            int kind = buffer.getInt();
+            int a = buffer.getInt();
+            int b = buffer.getInt();
+            if (kind == CELL && a >= 0 && a < size * size) {
+                grid.setBlack(a / size, a % size, b != 0);
+            } else if (kind == CLEAR) {
+                grid.clearStates();
+            } else if (kind == TICK) {
+                state.seconds = a;
+                state.moveCount = b;
+            }
+        }
+    }
+}
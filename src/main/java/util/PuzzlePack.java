@@ -0,0 +1,178 @@
+package util;
+
+import model.Grid;
+import solver.HitoriSolver;
+import solver.SolveResult;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Paquet de grilles en un seul fichier, projeté en mémoire.
+ *
+ * En-tête : "HPAK", version (short), réservé (short), nombre de grilles (int).
+ * Index : une entrée de 16 octets par grille (position des données, taille,
+ * difficulté, identifiant). Données : les chiffres de chaque grille, un short
+ * par case. Charger la grille n ne lit que son entrée et ses données.
+ *
+ * Le fichier est projeté d'un seul tenant, donc limité à 2 Go.
+ */
+public class PuzzlePack {
+
+    static final int MAGIC = 0x4850414B; // "HPAK"
+    static final short VERSION = 1;
+    private static final int HEADER_BYTES = 12;
+    private static final int ENTRY_BYTES = 16;
+
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final int count;
+
+    private PuzzlePack(Path path, MappedByteBuffer buffer) throws IOException {
+        this.path = path;
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Paquet de grilles invalide");
+        }
+        if (buffer.getShort(4) != VERSION) {
+            throw new IOException("Version de paquet non prise en charge : " + buffer.getShort(4));
+        }
+        this.count = buffer.getInt(8);
+        if (count < 0 || HEADER_BYTES + (long) count * ENTRY_BYTES > buffer.capacity()) {
+            throw new IOException("Index du paquet tronqué");
+        }
+    }
+
+    public static PuzzlePack open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new PuzzlePack(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Nombre de grilles du paquet
+     */
+    public int size() {
+        return count;
+    }
+
+    public int getGridSize(int n) {
+        return buffer.getShort(entry(n) + 8);
+    }
+
+    /**
+     * Nœuds de recherche du solveur pour cette grille (plafonné), -1 si
+     * elle n'a pas de solution
+     */
+    public int getDifficulty(int n) {
+        return buffer.getShort(entry(n) + 10);
+    }
+
+    public int getId(int n) {
+        return buffer.getInt(entry(n) + 12);
+    }
+
+    /**
+     * Grille numéro n, lue directement dans le fichier projeté. Une entrée
+     * dont les données sortent du fichier (paquet tronqué ou corrompu) lève
+     * IllegalStateException.
+     */
+    public Grid load(int n) {
+        int entry = entry(n);
+        long offset = buffer.getLong(entry);
+        int size = buffer.getShort(entry + 8);
+        if (size <= 0 || offset < HEADER_BYTES || offset + 2L * size * size > buffer.capacity()) {
+            throw new IllegalStateException("Grille " + n + " corrompue dans le paquet " + path);
+        }
+
+        Grid grid = new Grid(size);
+        for (int k = 0; k < size * size; k++) {
+            grid.setCell(k / size, k % size, buffer.getShort((int) offset + 2 * k));
+        }
+        return grid;
+    }
+
+    private int entry(int n) {
+        if (n < 0 || n >= count) {
+            throw new IndexOutOfBoundsException("Grille " + n + " absente du paquet (" + count + " grilles)");
+        }
+        return HEADER_BYTES + n * ENTRY_BYTES;
+    }
+
+    /**
+     * Construit un paquet à partir des fichiers grid_*.txt d'un dossier,
+     * dans l'ordre de leurs noms ; l'identifiant d'une grille est le nombre
+     * qui termine son nom de fichier, ou sa position à défaut. Retourne le
+     * nombre de grilles écrites.
+     */
+    public static int build(Path directory, Path packFile) throws IOException {
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(directory)) {
+            files = stream
+                .filter(path -> {
+                    String name = path.getFileName().toString();
+                    return name.startsWith("grid_") && name.endsWith(".txt");
+                })
+                .sorted()
+                .collect(Collectors.toList());
+        }
+
+        HitoriSolver solver = new HitoriSolver();
+        ByteBuffer index = ByteBuffer.allocate(HEADER_BYTES + files.size() * ENTRY_BYTES);
+        index.putInt(MAGIC).putShort(VERSION).putShort((short) 0).putInt(files.size());
+
+        try (FileChannel channel = FileChannel.open(packFile, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long offset = index.capacity();
+            channel.position(offset);
+
+            for (int n = 0; n < files.size(); n++) {
+                Grid grid = FileUtils.loadGridFromPath(files.get(n));
+                int size = grid.getSize();
+                SolveResult result = solver.solve(grid);
+                int difficulty = result.isSolved() ? (int) Math.min(Short.MAX_VALUE, result.getNodes()) : -1;
+
+                index.putLong(offset).putShort((short) size).putShort((short) difficulty)
+                    .putInt(idFromName(files.get(n), n));
+
+                ByteBuffer data = ByteBuffer.allocate(2 * size * size);
+                for (int k = 0; k < size * size; k++) {
+                    data.putShort((short) grid.getValue(k / size, k % size));
+                }
+                data.flip();
+                while (data.hasRemaining()) {
+                    channel.write(data);
+                }
+                offset += 2L * size * size;
+            }
+
+            index.flip();
+            channel.position(0);
+            while (index.hasRemaining()) {
+                channel.write(index);
+            }
+        }
+        return files.size();
+    }
+
+    private static int idFromName(Path file, int fallback) {
+        String name = file.getFileName().toString();
+        int end = name.length() - ".txt".length();
+        int start = end;
+        while (start > 0 && Character.isDigit(name.charAt(start - 1))) {
+            start--;
+        }
+        if (start == end || end - start > 9) {
+            return fallback;
+        }
+        return Integer.parseInt(name.substring(start, end));
+    }
+}
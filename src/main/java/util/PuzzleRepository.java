@@ -0,0 +1,148 @@
+package util;
+
+import model.Grid;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Accès aux grilles par niveau, avec cache.
+ *
+ * Une grille est cherchée dans le dossier de données (propriété système
+ * hitori.data.dir), puis dans le classpath (/grids, y compris depuis un jar),
+ * puis dans src/main/resources/grids pour un lancement depuis les sources.
+ * Elle n'est lue et analysée qu'une fois : le cache LRU garde un modèle que
+ * personne ne modifie, et chaque appel reçoit une copie neuve et blanche.
+ * Les appels simultanés pour une grille pas encore en cache (un préchargement
+ * et le chargement qui le suit) attendent la même lecture.
+ */
+public class PuzzleRepository {
+
+    private static final String DATA_DIR_PROPERTY = "hitori.data.dir";
+    private static final String CLASSPATH_DIR = "/grids/";
+    private static final Path SOURCE_DIR = Path.of("src/main/resources/grids");
+
+    private static final PuzzleRepository DEFAULT = new PuzzleRepository(
+        System.getProperty(DATA_DIR_PROPERTY) == null ? null : Path.of(System.getProperty(DATA_DIR_PROPERTY)),
+        32
+    );
+
+    private final Path dataDirectory;
+    private final int capacity;
+    private final Map<String, Grid> templates;
+    // Lectures en cours, partagées par les appels simultanés
+    private final Map<String, CompletableFuture<Grid>> reading = new HashMap<>();
+    private int diskReads;
+
+    /**
+     * @param dataDirectory dossier consulté en premier, ou null
+     * @param capacity      nombre de grilles gardées en cache
+     */
+    public PuzzleRepository(Path dataDirectory, int capacity) {
+        this.dataDirectory = dataDirectory;
+        this.capacity = capacity;
+        this.templates = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Grid> eldest) {
+                return size() > PuzzleRepository.this.capacity;
+            }
+        };
+    }
+
+    public static PuzzleRepository getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Nouvelle grille (toutes les cases blanches) pour le niveau demandé
+     */
+    public Grid load(String level) throws IOException {
+        String name = "grid_" + level.toLowerCase() + ".txt";
+        CompletableFuture<Grid> pending;
+        boolean reader = false;
+        synchronized (this) {
+            Grid template = templates.get(name);
+            if (template != null) {
+                return template.blankCopy();
+            }
+            pending = reading.get(name);
+            if (pending == null) {
+                pending = new CompletableFuture<>();
+                reading.put(name, pending);
+                reader = true;
+            }
+        }
+
+        if (reader) {
+            try {
+                Grid template = read(name);
+                synchronized (this) {
+                    diskReads++;
+                    templates.put(name, template);
+                    reading.remove(name);
+                }
+                pending.complete(template);
+            } catch (IOException | RuntimeException e) {
+                synchronized (this) {
+                    reading.remove(name);
+                }
+                pending.completeExceptionally(e);
+                throw e;
+            }
+        }
+
+        try {
+            return pending.join().blankCopy();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Lit la grille du niveau en arrière-plan pour qu'un prochain load la
+     * trouve en cache ; une erreur de lecture est ignorée (load la signalera)
+     */
+    public CompletableFuture<Void> prefetch(String level) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                load(level);
+            } catch (IOException ignored) {}
+        }, BackgroundTasks.executor());
+    }
+
+    /**
+     * Nombre de grilles effectivement lues (hors cache)
+     */
+    public synchronized int getDiskReads() {
+        return diskReads;
+    }
+
+    public synchronized void clear() {
+        templates.clear();
+    }
+
+    private Grid read(String name) throws IOException {
+        if (dataDirectory != null && Files.exists(dataDirectory.resolve(name))) {
+            return GridParser.parse(dataDirectory.resolve(name));
+        }
+        try (InputStream in = PuzzleRepository.class.getResourceAsStream(CLASSPATH_DIR + name)) {
+            if (in != null) {
+                return GridParser.parse(in);
+            }
+        }
+        if (Files.exists(SOURCE_DIR.resolve(name))) {
+            return GridParser.parse(SOURCE_DIR.resolve(name));
+        }
+        throw new IOException("Fichier de grille introuvable : " + name);
+    }
+}
@@ -0,0 +1,173 @@
+package util;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Histogramme des temps d'un classement, en arbre de Fenwick : une case
+ * par seconde, le nombre de scores de ce temps. Ajouter un score, trouver
+ * le rang d'un temps ou le temps d'un rang coûte O(log n) quel que soit le
+ * nombre de scores, sans jamais trier. L'arbre double de taille quand un
+ * temps dépasse sa capacité ; au-delà de MAX_SECONDS, les temps sont
+ * comptés dans la dernière case.
+ */
+public class ScoreIndex {
+
+    public static final int MAX_SECONDS = (1 << 20) - 1;
+    private static final int INITIAL_BUCKETS = 1 << 10;
+
+    // tree[i] (base 1) compte les temps de ]i - (i & -i), i] décalés d'une seconde
+    private int[] tree = new int[INITIAL_BUCKETS + 1];
+    private long total;
+
+    /**
+     * Nombre de scores indexés
+     */
+    public long count() {
+        return total;
+    }
+
+    public void add(int seconds) {
+        add(seconds, 1);
+    }
+
+    private void add(int seconds, int times) {
+        int bucket = Math.max(0, Math.min(seconds, MAX_SECONDS)) + 1;
+        while (bucket >= tree.length) {
+            grow();
+        }
+        for (int i = bucket; i < tree.length; i += i & -i) {
+            tree[i] += times;
+        }
+        total += times;
+    }
+
+    /**
+     * Les nouvelles cases sont vides : seul le nœud qui couvre tout
+     * l'arbre agrandi est non nul, et vaut le total
+     */
+    private void grow() {
+        int size = tree.length - 1;
+        tree = Arrays.copyOf(tree, 2 * size + 1);
+        tree[2 * size] = (int) total;
+    }
+
+    /**
+     * Nombre de scores de temps inférieur ou égal
+     */
+    public long countAtMost(int seconds) {
+        // Borné avant le décalage d'une case, comme dans add, pour ne pas déborder
+        int bucket = Math.min(Math.max(seconds, -1), MAX_SECONDS) + 1;
+        long sum = 0;
+        for (int i = Math.min(bucket, tree.length - 1); i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Rang qu'obtiendrait ce temps (1 = meilleur) ; les temps égaux
+     * partagent le même rang
+     */
+    public long rank(int seconds) {
+        return countAtMost(Math.max(seconds, 0) - 1) + 1;
+    }
+
+    /**
+     * Part des scores strictement plus lents que ce temps, en pourcentage
+     */
+    public double percentile(int seconds) {
+        if (total == 0) {
+            return 100.0;
+        }
+        return 100.0 * (total - countAtMost(seconds)) / total;
+    }
+
+    /**
+     * Temps classé au rang donné (1 = meilleur), par descente dans l'arbre
+     */
+    public int timeAtRank(long rank) {
+        if (rank < 1 || rank > total) {
+            throw new IndexOutOfBoundsException("Rang " + rank + " hors du classement (" + total + " scores)");
+        }
+        int position = 0;
+        long remaining = rank;
+        for (int step = Integer.highestOneBit(tree.length - 1); step > 0; step >>= 1) {
+            int next = position + step;
+            if (next < tree.length && tree[next] < remaining) {
+                position = next;
+                remaining -= tree[next];
+            }
+        }
+        // position + 1 est la case du temps cherché
+        return position;
+    }
+
+    /**
+     * Temps classés de rank - radius à rank + radius, bornés au classement
+     */
+    public int[] around(long rank, int radius) {
+        long first = Math.max(1, rank - radius);
+        long last = Math.min(total, rank + radius);
+        if (first > last) {
+            return new int[0];
+        }
+        int[] times = new int[(int) (last - first + 1)];
+        for (int k = 0; k < times.length; k++) {
+            times[k] = timeAtRank(first + k);
+        }
+        return times;
+    }
+
+    /**
+     * Taille de l'histogramme une fois écrit par write
+     */
+    int encodedSize() {
+        return 4 + 8 * nonEmptyBuckets();
+    }
+
+    /**
+     * Écrit les seules cases non vides : nombre de cases, puis (temps, nombre)
+     */
+    void write(ByteBuffer out) {
+        int[] counts = counts();
+        out.putInt(nonEmptyBuckets());
+        for (int seconds = 0; seconds < counts.length; seconds++) {
+            if (counts[seconds] != 0) {
+                out.putInt(seconds).putInt(counts[seconds]);
+            }
+        }
+    }
+
+    static ScoreIndex read(ByteBuffer in) {
+        ScoreIndex index = new ScoreIndex();
+        int buckets = in.getInt();
+        for (int k = 0; k < buckets; k++) {
+            int seconds = in.getInt();
+            index.add(seconds, in.getInt());
+        }
+        return index;
+    }
+
+    private int nonEmptyBuckets() {
+        int buckets = 0;
+        for (int count : counts()) {
+            if (count != 0) {
+                buckets++;
+            }
+        }
+        return buckets;
+    }
+
+    // Nombre de scores par seconde, en défaisant l'arbre en O(n)
+    private int[] counts() {
+        int[] counts = Arrays.copyOfRange(tree, 1, tree.length);
+        for (int i = tree.length - 1; i > 0; i--) {
+            int parent = i + (i & -i);
+            if (parent < tree.length) {
+                counts[parent - 1] -= tree[i];
+            }
+        }
+        return counts;
+    }
+}
@@ -5,6 +5,10 @@ import model.Cell;
 import model.Grid;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class HitoriGameTest {
@@ -175,4 +179,63 @@ class HitoriGameTest {
         cell.toggleState();
         assertTrue(cell.isWhite());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testUndoRedo() throws InvalidMoveException {
+        Grid grid = game.getGrid();
+        assertFalse(game.canUndo(), "Rien à annuler au départ");
+
+        game.toggleCell(0, 0);
+        game.toggleCell(2, 2);
+        game.toggleCell(0, 0);
+        assertTrue(grid.isWhite(0, 0));
+
+        assertEquals(0, game.undo(), "Le dernier coup portait sur (0, 0)");
+        assertTrue(grid.isBlack(0, 0));
+        assertEquals(12, game.undo());
+        assertTrue(grid.isWhite(2, 2));
+
+        assertEquals(12, game.redo());
+        assertTrue(grid.isBlack(2, 2));
+
+        // Un nouveau coup efface les coups rétablissables
+        int checkpoint = game.checkpoint();
+        game.toggleCell(4, 4);
+        assertFalse(game.canRedo());
+
+        game.rollback(checkpoint);
+        assertTrue(grid.isWhite(4, 4));
+        assertTrue(grid.isBlack(0, 0) && grid.isBlack(2, 2));
+
+        game.resetGrid();
+        assertEquals(-1, game.undo(), "Recommencer vide l'historique");
+    }
+
+    @Test
+    void testLoadGridAsync() throws Exception {
+        HitoriGame other = new HitoriGame();
+        Grid grid = other.loadGridAsync("medium", Runnable::run).get(5, TimeUnit.SECONDS);
+        assertSame(grid, other.getGrid());
+        assertEquals("medium", other.getLevel());
+        assertEquals("hard", other.getNextLevel());
+
+        ExecutionException failure = assertThrows(ExecutionException.class,
+            () -> other.loadGridAsync("inexistant", Runnable::run).get(5, TimeUnit.SECONDS));
+        assertTrue(failure.getCause() instanceof IOException);
+        assertSame(grid, other.getGrid(), "Un échec laisse la grille en place");
+    }
+
+    @Test
+    void testAutoSolveClearsMoveLog() throws InvalidMoveException {
+        game.toggleCell(0, 0);
+        assertTrue(game.autoSolve(2).isSolved());
+        assertFalse(game.canUndo(), "Les coups d'avant la résolution ne sont plus annulables");
+        assertEquals(-1, game.undo());
+        assertTrue(game.isGameWon());
+
+        // Deuxième résolution, même sur plusieurs threads : trouvée en cache
+        game.resetGrid();
+        assertEquals(0, game.autoSolve(2).getNodes());
+        assertTrue(game.isGameWon());
+    }
+}
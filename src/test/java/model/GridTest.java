@@ -0,0 +1,221 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.*;
+
+class GridTest {
+
+    private Grid createGrid(int size) {
+        Grid grid = new Grid(size);
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                // Carré latin : aucune répétition par ligne ni par colonne
+                grid.setCell(i, j, (i + j) % size + 1);
+            }
+        }
+        return grid;
+    }
+
+    @Test
+    void testCellViewWritesThroughToGrid() {
+        Grid grid = createGrid(5);
+        Cell cell = grid.getCell(2, 3);
+
+        cell.setState(Cell.State.BLACK);
+        assertTrue(grid.isBlack(2, 3), "La vue doit écrire dans la grille");
+        assertTrue(grid.getCell(2, 3).isBlack(), "Une nouvelle vue doit voir le même état");
+
+        grid.toggle(2, 3);
+        assertTrue(cell.isWhite(), "La vue doit refléter l'état de la grille");
+        assertEquals(grid.getValue(2, 3), cell.getValue());
+    }
+
+    @Test
+    void testLatinSquareIsValid() {
+        assertTrue(createGrid(5).isValid(), "Un carré latin tout blanc est une solution");
+    }
+
+    @Test
+    void testAdjacentBlacksAcrossWordBoundary() {
+        Grid grid = createGrid(130);
+        grid.setBlack(0, 63, true);
+        grid.setBlack(0, 64, true);
+        assertFalse(grid.isValid(), "Deux noires adjacentes entre deux mots de 64 bits");
+
+        grid.setBlack(0, 64, false);
+        grid.setBlack(64, 63, true);
+        grid.setBlack(63, 63, false);
+        assertTrue(grid.isMoveValid(64, 63));
+        grid.setBlack(65, 63, true);
+        assertFalse(grid.isMoveValid(65, 63), "Adjacence verticale non détectée");
+        assertFalse(grid.isValid(), "Deux noires adjacentes entre deux mots d'une colonne");
+    }
+
+    @Test
+    void testCountsOnLargeGrid() {
+        Grid grid = createGrid(100);
+        grid.setBlack(10, 70, true);
+        grid.setBlack(99, 99, true);
+
+        assertEquals(2, grid.countBlackCells());
+        assertEquals(100 * 100 - 2, grid.countWhiteCells());
+
+        grid.clearStates();
+        assertEquals(0, grid.countBlackCells());
+    }
+
+    @Test
+    void testValidationReportListsOffendingCells() {
+        Grid grid = createGrid(5);
+        assertTrue(grid.validate().isValid());
+
+        grid.setCell(0, 0, 2);              // doublon avec (0,1) et (1,0)
+        grid.setBlack(3, 3, true);
+        grid.setBlack(3, 4, true);          // paire de noires adjacentes
+        ValidationReport report = grid.validate();
+
+        assertFalse(report.isValid());
+        assertTrue(report.has(ValidationReport.Violation.DUPLICATE));
+        assertTrue(report.has(ValidationReport.Violation.ADJACENT_BLACKS));
+        assertFalse(report.has(ValidationReport.Violation.DISCONNECTED_WHITE));
+
+        boolean found = false;
+        for (int k = 0; k < report.getViolationCount(); k++) {
+            if (report.getKind(k) == ValidationReport.Violation.ADJACENT_BLACKS
+                    && report.getRow(k) == 3 && report.getCol(k) == 4) {
+                found = true;
+            }
+        }
+        assertTrue(found, "La case (3,4) doit être signalée");
+        assertTrue(report.getDescription().contains("Doublons"));
+    }
+
+    @Test
+    void testParallelValidationOnLargeGrid() {
+        Grid grid = createGrid(200);
+        assertTrue(grid.isValidParallel(), "Un carré latin tout blanc est valide");
+
+        grid.setBlack(150, 20, true);
+        grid.setBlack(151, 20, true);
+        assertFalse(grid.isValidParallel(), "Noires adjacentes non détectées");
+
+        grid.setBlack(151, 20, false);
+        grid.setCell(199, 0, grid.getValue(199, 5));
+        assertFalse(grid.isValidParallel(), "Doublon non détecté");
+        assertEquals(grid.isValid(), grid.isValidParallel());
+    }
+
+    @Test
+    void testIncrementalValidatorMatchesFullCheck() {
+        Grid grid = createGrid(6);
+        grid.setCell(0, 0, 2);
+        IncrementalValidator validator = grid.getValidator();
+        Random random = new Random(42);
+
+        for (int k = 0; k < 60; k++) {
+            grid.toggle(random.nextInt(6), random.nextInt(6));
+            assertEquals(grid.isValid(), validator.isSolved(), "Divergence après le coup " + k);
+        }
+
+        grid.clearStates();
+        assertTrue(validator.hasDuplicates(), "Le 2 ajouté en (0,0) crée un doublon");
+        assertFalse(validator.hasAdjacentBlacks());
+    }
+
+    @Test
+    void testWhiteConnectivityMatchesFloodFill() {
+        int size = 12;
+        Grid grid = createGrid(size);
+        WhiteConnectivity connectivity = grid.getConnectivity();
+        Random random = new Random(7);
+
+        for (int k = 0; k < 400; k++) {
+            int row = random.nextInt(size);
+            int col = random.nextInt(size);
+
+            if (grid.isWhite(row, col)) {
+                grid.setBlack(row, col, true);
+                int after = countComponents(grid);
+                grid.setBlack(row, col, false);
+                int before = countComponents(grid);
+                assertEquals(after > before, connectivity.wouldDisconnect(row, col),
+                    "wouldDisconnect incorrect en (" + row + "," + col + ")");
+            }
+
+            grid.toggle(row, col);
+            assertEquals(countComponents(grid), connectivity.getComponentCount(), "Nombre de blocs après le coup " + k);
+        }
+    }
+
+    @Test
+    void testFloodFillOnLongSnakeDoesNotOverflow() {
+        int size = 300;
+        Grid grid = createGrid(size);
+        // Serpentin : une ligne sur deux est noire sauf à une extrémité alternée
+        for (int i = 1; i < size; i += 2) {
+            int gap = (i / 2) % 2 == 0 ? size - 1 : 0;
+            for (int j = 0; j < size; j++) {
+                if (j != gap) {
+                    grid.setBlack(i, j, true);
+                }
+            }
+        }
+
+        int whites = grid.countWhiteCells();
+        assertEquals(whites, grid.floodFill(grid.firstWhiteCell(), -1), "Tout le serpentin doit être atteint");
+        assertTrue(grid.getConnectivity().isWhiteConnected());
+        assertTrue(grid.getConnectivity().wouldDisconnect(0, size / 2));
+    }
+
+    private int countComponents(Grid grid) {
+        int size = grid.getSize();
+        boolean[][] seen = new boolean[size][size];
+        int components = 0;
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                if (grid.isWhite(i, j) && !seen[i][j]) {
+                    components++;
+                    fill(grid, i, j, seen);
+                }
+            }
+        }
+        return components;
+    }
+
+    private void fill(Grid grid, int row, int col, boolean[][] seen) {
+        int size = grid.getSize();
+        if (row < 0 || col < 0 || row >= size || col >= size || seen[row][col] || grid.isBlack(row, col)) {
+            return;
+        }
+        seen[row][col] = true;
+        fill(grid, row - 1, col, seen);
+        fill(grid, row + 1, col, seen);
+        fill(grid, row, col - 1, seen);
+        fill(grid, row, col + 1, seen);
+    }
+
+    @Test
+    void testStateHashTracksBlackCells() {
+        Grid grid = createGrid(4);
+        long empty = grid.getStateHash();
+
+        grid.setBlack(0, 0, true);
+        long one = grid.getStateHash();
+        assertNotEquals(empty, one);
+
+        grid.setBlack(2, 1, true);
+        grid.setBlack(0, 0, false);
+        grid.setBlack(0, 0, true);
+        grid.setBlack(2, 1, false);
+        assertEquals(one, grid.getStateHash(), "Même état, même empreinte");
+
+        grid.getCell(0, 0).toggleState();
+        assertEquals(empty, grid.getStateHash());
+
+        grid.setBlack(3, 3, true);
+        grid.clearStates();
+        assertEquals(empty, grid.getStateHash());
+    }
+}
@@ -0,0 +1,145 @@
+package server;
+
+import controller.HitoriGame;
+import model.Grid;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HitoriServerTest {
+
+    private static final Pattern SESSION = Pattern.compile("\"session\":\"([^\"]+)\"");
+
+    private HitoriServer server;
+    private HttpClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new HitoriServer(0);
+        server.start();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop();
+    }
+
+    private HttpResponse<String> send(String method, String path) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path))
+            .method(method, HttpRequest.BodyPublishers.noBody())
+            .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private String newSession(String level) throws Exception {
+        HttpResponse<String> response = send("POST", "/puzzle?level=" + level);
+        assertEquals(200, response.statusCode(), response.body());
+        Matcher matcher = SESSION.matcher(response.body());
+        assertTrue(matcher.find(), "La réponse doit contenir l'identifiant de partie");
+        return matcher.group(1);
+    }
+
+    /**
+     * Joue la solution de la grille easy ; retourne la dernière réponse
+     */
+    private String playSolution(String session) throws Exception {
+        HitoriGame solved = new HitoriGame();
+        solved.loadGrid("easy");
+        assertTrue(solved.autoSolve().isSolved());
+        Grid grid = solved.getGrid();
+
+        String last = null;
+        for (int i = 0; i < grid.getSize(); i++) {
+            for (int j = 0; j < grid.getSize(); j++) {
+                if (grid.isBlack(i, j)) {
+                    HttpResponse<String> response = send("POST", "/move?session=" + session + "&row=" + i + "&col=" + j);
+                    assertEquals(200, response.statusCode(), response.body());
+                    last = response.body();
+                }
+            }
+        }
+        return last;
+    }
+
+    @Test
+    void testPlayFullGameOverHttp() throws Exception {
+        String session = newSession("easy");
+        assertTrue(send("GET", "/won?session=" + session).body().contains("\"won\":false"));
+
+        String last = playSolution(session);
+        assertTrue(last.contains("\"won\":true"), "Le dernier coup de la solution gagne la partie");
+        assertTrue(send("GET", "/won?session=" + session).body().contains("\"won\":true"));
+        assertTrue(send("GET", "/puzzle?session=" + session).body().contains("\"size\":5"));
+
+        assertEquals(200, send("DELETE", "/puzzle?session=" + session).statusCode());
+        assertEquals(0, server.getSessionCount());
+    }
+
+    @Test
+    void testRejectsBadRequests() throws Exception {
+        String session = newSession("easy");
+        assertEquals(404, send("POST", "/puzzle?level=absent").statusCode());
+        assertEquals(404, send("GET", "/won?session=inconnue").statusCode());
+        assertEquals(400, send("POST", "/move?session=" + session + "&row=9&col=0").statusCode());
+        assertEquals(400, send("POST", "/move?session=" + session + "&row=a&col=0").statusCode());
+        assertEquals(405, send("GET", "/move?session=" + session + "&row=0&col=0").statusCode());
+
+        // Deux cases noires adjacentes : refusé, la grille reste inchangée
+        assertEquals(200, send("POST", "/move?session=" + session + "&row=0&col=0").statusCode());
+        HttpResponse<String> conflict = send("POST", "/move?session=" + session + "&row=0&col=1");
+        assertEquals(409, conflict.statusCode());
+        assertTrue(send("GET", "/puzzle?session=" + session).body().contains("\"moves\":1"));
+    }
+
+    @Test
+    void testConcurrentSessions() throws Exception {
+        ExecutorService players = Executors.newFixedThreadPool(8);
+        List<Future<String>> games = new ArrayList<>();
+        for (int k = 0; k < 32; k++) {
+            games.add(players.submit(() -> playSolution(newSession("easy"))));
+        }
+        for (Future<String> game : games) {
+            assertTrue(game.get(60, TimeUnit.SECONDS).contains("\"won\":true"));
+        }
+        players.shutdown();
+
+        assertEquals(32, server.getSessionCount());
+        String stats = send("GET", "/stats").body();
+        assertTrue(stats.contains("\"sessions\":32"), stats);
+        assertTrue(stats.contains("\"wins\":32"), stats);
+    }
+
+    @Test
+    void testSessionsAreCappedAndExpire() throws Exception {
+        server.stop();
+        server = new HitoriServer(0, 2, 300);
+        server.start();
+
+        String first = newSession("easy");
+        newSession("easy");
+        assertEquals(503, send("POST", "/puzzle?level=easy").statusCode(), "Plafond de parties atteint");
+
+        Thread.sleep(500);
+        // Les parties inactives sont fermées : la place se libère
+        String fresh = newSession("easy");
+        assertEquals(1, server.getSessionCount());
+        assertEquals(404, send("GET", "/won?session=" + first).statusCode());
+        assertEquals(200, send("GET", "/won?session=" + fresh).statusCode());
+    }
+}
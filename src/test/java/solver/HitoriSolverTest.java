@@ -0,0 +1,300 @@
+package solver;
+
+import model.Grid;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import util.FileUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HitoriSolverTest {
+
+    /**
+     * Grille aléatoire ayant au moins une solution : carré latin mélangé,
+     * motif de noires sans adjacence ni coupure, puis chaque noire reçoit le
+     * chiffre d'une blanche de sa ligne
+     */
+    static Grid randomPuzzle(int size, long seed) {
+        Random random = new Random(seed);
+        int[] perm = new int[size];
+        for (int k = 0; k < size; k++) perm[k] = k + 1;
+        for (int k = size - 1; k > 0; k--) {
+            int other = random.nextInt(k + 1);
+            int tmp = perm[k]; perm[k] = perm[other]; perm[other] = tmp;
+        }
+
+        Grid grid = new Grid(size);
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                grid.setCell(i, j, perm[(i + j) % size]);
+            }
+        }
+
+        for (int attempt = 0; attempt < size * size; attempt++) {
+            int row = random.nextInt(size);
+            int col = random.nextInt(size);
+            if (grid.isBlack(row, col) || grid.getConnectivity().wouldDisconnect(row, col)) continue;
+            grid.setBlack(row, col, true);
+            if (!grid.isMoveValid(row, col)) grid.setBlack(row, col, false);
+        }
+
+        Grid puzzle = new Grid(size);
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                int value = grid.getValue(i, j);
+                if (grid.isBlack(i, j)) {
+                    int other = (j + 1 + random.nextInt(size - 1)) % size;
+                    while (grid.isBlack(i, other)) other = (other + 1) % size;
+                    value = grid.getValue(i, other);
+                }
+                puzzle.setCell(i, j, value);
+            }
+        }
+        return puzzle;
+    }
+
+    @Test
+    void testSolveBundledGrids() throws Exception {
+        for (String level : new String[] {"easy", "medium", "hard"}) {
+            Grid grid = FileUtils.loadGridFromFile(level);
+            SolveResult result = new HitoriSolver().solve(grid);
+
+            assertTrue(result.isSolved(), "La grille " + level + " devrait avoir une solution");
+            result.applyTo(grid);
+            assertTrue(grid.isValid(), "La solution de " + level + " doit respecter les règles");
+        }
+    }
+
+    @Test
+    void testSolveRandom15x15Quickly() {
+        HitoriSolver solver = new HitoriSolver();
+        for (long seed = 1; seed <= 20; seed++) {
+            Grid grid = randomPuzzle(15, seed);
+            assertTrue(solver.solveInPlace(grid), "Graine " + seed + " : solution attendue");
+            assertTrue(grid.isValid(), "Graine " + seed + " : solution invalide");
+        }
+
+        Grid grid = randomPuzzle(15, 99);
+        SolveResult result = solver.solve(grid);
+        assertTrue(result.getElapsedNanos() < 1_000_000_000L, "Résolution trop lente : " + result);
+    }
+
+    @Test
+    void testParallelSolverLeavesGridSolved() {
+        for (int threads : new int[] {1, 4}) {
+            Grid grid = randomPuzzle(40, threads);
+            SolveResult result = new ParallelSolver(threads).solve(grid);
+
+            assertTrue(result.isSolved(), threads + " threads : solution attendue");
+            assertTrue(grid.isValid(), threads + " threads : la grille doit être résolue");
+            assertTrue(result.getNodes() > 0);
+        }
+    }
+
+    @Test
+    void testCountSolutionsMatchesBruteForce() {
+        Random random = new Random(3);
+        HitoriSolver solver = new HitoriSolver();
+
+        for (int k = 0; k < 30; k++) {
+            Grid grid = new Grid(4);
+            for (int i = 0; i < 4; i++) {
+                for (int j = 0; j < 4; j++) {
+                    grid.setCell(i, j, 1 + random.nextInt(4));
+                }
+            }
+
+            int expected = 0;
+            for (int mask = 0; mask < 1 << 16; mask++) {
+                for (int cell = 0; cell < 16; cell++) {
+                    grid.setBlack(cell / 4, cell % 4, (mask & (1 << cell)) != 0);
+                }
+                if (grid.isValid()) expected++;
+            }
+
+            assertEquals(expected, solver.countSolutions(grid, Integer.MAX_VALUE), "Grille aléatoire n°" + k);
+            assertEquals(Math.min(expected, 2), solver.countSolutions(grid, 2), "Arrêt anticipé n°" + k);
+        }
+    }
+
+    @Test
+    void testCountSolutionsInDirectory(@TempDir Path directory) throws Exception {
+        Files.writeString(directory.resolve("grid_unique.txt"), "1 1\n2 1\n");
+        Files.writeString(directory.resolve("grid_none.txt"), "1 1\n1 1\n");
+        Files.writeString(directory.resolve("grid_broken.txt"), "1 x\n");
+
+        Map<Path, Integer> results = PuzzleVerifier.countSolutionsInDirectory(directory, 2);
+
+        assertEquals(1, results.get(directory.resolve("grid_unique.txt")));
+        assertEquals(0, results.get(directory.resolve("grid_none.txt")));
+        assertEquals(PuzzleVerifier.UNREADABLE, results.get(directory.resolve("grid_broken.txt")));
+        assertEquals(2, PuzzleVerifier.findInvalidPuzzles(directory).size());
+    }
+
+    @Test
+    void testGeneratorWritesUniquePuzzles(@TempDir Path directory) throws Exception {
+        List<Path> written = PuzzleGenerator.generateToDirectory(8, 6, 123L, 3, directory);
+
+        assertEquals(6, written.size());
+        Map<Path, Integer> counts = PuzzleVerifier.countSolutionsInDirectory(directory, 2);
+        assertEquals(6, counts.size());
+        for (int count : counts.values()) {
+            assertEquals(1, count, "Chaque grille générée doit avoir une solution unique");
+        }
+
+        Grid grid = PuzzleGenerator.generate(12, 5L);
+        assertEquals(12, grid.getSize());
+        assertTrue(new HitoriSolver().hasUniqueSolution(grid));
+
+        assertThrows(IllegalArgumentException.class, () -> PuzzleGenerator.generate(1, 0L));
+        assertThrows(IllegalArgumentException.class,
+            () -> PuzzleGenerator.generateToDirectory(0, 1, 0L, 1, directory));
+    }
+
+    @Test
+    void testHintsLeadToSolution() {
+        Grid grid = PuzzleGenerator.generate(10, 11L);
+        SolveResult expected = new HitoriSolver().solve(grid);
+        HintEngine engine = new HintEngine(grid, CompletableFuture.completedFuture(expected));
+
+        // Une erreur du joueur est signalée avant tout autre indice
+        int wrongRow = -1, wrongCol = -1;
+        for (int k = 0; k < 100 && wrongRow < 0; k++) {
+            if (!expected.isBlack(k / 10, k % 10)) {
+                wrongRow = k / 10;
+                wrongCol = k % 10;
+            }
+        }
+        grid.setBlack(wrongRow, wrongCol, true);
+        Hint mistake = engine.nextHint(grid);
+        assertEquals(Hint.Kind.MISTAKE, mistake.getKind());
+        assertEquals(wrongRow, mistake.getRow());
+        assertEquals(wrongCol, mistake.getCol());
+        grid.setBlack(wrongRow, wrongCol, false);
+
+        // Suivre les indices un à un résout la grille
+        for (Hint hint = engine.nextHint(grid); hint != null; hint = engine.nextHint(grid)) {
+            assertTrue(hint.isBlack(), "Les indices sans erreur noircissent une case");
+            assertTrue(expected.isBlack(hint.getRow(), hint.getCol()), "Indice incohérent avec la solution");
+            grid.setBlack(hint.getRow(), hint.getCol(), true);
+        }
+        assertTrue(grid.isValid(), "La grille doit être résolue");
+    }
+
+    @Test
+    void testHintsReportMistakesBeforeDeductions() {
+        Grid grid = PuzzleGenerator.generate(6, 4L);
+        SolveResult expected = new HitoriSolver().solve(grid);
+        HintEngine engine = new HintEngine(grid, CompletableFuture.completedFuture(expected));
+
+        // Sur cette grille, noircir (1, 3) ne contredit aucune déduction : l'erreur
+        // doit quand même passer avant les cases forcées qui en découlent
+        for (int k = 0; k < 36; k++) {
+            if (expected.isBlack(k / 6, k % 6)) {
+                continue;
+            }
+            grid.setBlack(k / 6, k % 6, true);
+            Hint hint = engine.nextHint(grid);
+            assertEquals(Hint.Kind.MISTAKE, hint.getKind(), "Case " + k);
+            assertEquals(k / 6, hint.getRow());
+            assertEquals(k % 6, hint.getCol());
+            grid.setBlack(k / 6, k % 6, false);
+        }
+    }
+
+    @Test
+    void testHintsDoNotWaitForSolution() {
+        Grid grid = PuzzleGenerator.generate(10, 11L);
+        SolveResult expected = new HitoriSolver().solve(grid);
+        CompletableFuture<SolveResult> pending = new CompletableFuture<>();
+        HintEngine engine = new HintEngine(grid, pending);
+
+        int wrong = 0;
+        while (expected.isBlack(wrong / 10, wrong % 10)) {
+            wrong++;
+        }
+        grid.setBlack(wrong / 10, wrong % 10, true);
+        assertNull(engine.nextHint(grid), "Sans la solution, l'erreur ne peut pas encore être signalée");
+
+        // Le résultat provisoire n'est pas gardé en cache
+        pending.complete(expected);
+        assertEquals(Hint.Kind.MISTAKE, engine.nextHint(grid).getKind());
+    }
+
+    @Test
+    void testSolutionCacheRecognisesSymmetricPuzzles(@TempDir Path directory) throws Exception {
+        Grid grid = PuzzleGenerator.generate(9, 3L);
+        // Même grille tournée d'un quart de tour, chiffres renumérotés
+        Grid rotated = new Grid(9);
+        for (int i = 0; i < 9; i++) {
+            for (int j = 0; j < 9; j++) {
+                rotated.setCell(j, 8 - i, 10 - grid.getValue(i, j));
+            }
+        }
+
+        SolutionCache cache = new SolutionCache(4, true, directory);
+        assertTrue(cache.solve(grid).isSolved());
+        SolveResult hit = cache.solve(rotated);
+        assertEquals(1, cache.getHits(), "La grille tournée doit être trouvée en cache");
+        assertEquals(0, hit.getNodes());
+        hit.applyTo(rotated);
+        assertTrue(rotated.isValid(), "La solution doit être ramenée dans l'orientation demandée");
+
+        // Le niveau disque survit à un nouveau cache
+        SolutionCache reloaded = new SolutionCache(4, true, directory);
+        assertNotNull(reloaded.get(rotated));
+        assertEquals(1, reloaded.getHits());
+
+        // Entrée disque corrompue (masque trop court) : simple absence du cache
+        Path entry;
+        try (Stream<Path> files = Files.list(directory)) {
+            entry = files.filter(path -> path.toString().endsWith(".sol")).findFirst().orElseThrow();
+        }
+        byte[] bytes = Files.readAllBytes(entry);
+        int wordsAt = 4 + 2 * 81;
+        bytes[wordsAt + 3] = 1;
+        Files.write(entry, Arrays.copyOf(bytes, wordsAt + 4 + 8));
+        SolutionCache corrupted = new SolutionCache(4, true, directory);
+        assertNull(corrupted.get(grid));
+        assertTrue(corrupted.solve(grid).isSolved());
+    }
+
+    @Test
+    void testTranspositionTable() {
+        TranspositionTable table = new TranspositionTable(100);
+        assertEquals(128, table.getCapacity());
+
+        Grid grid = randomPuzzle(8, 4);
+        grid.setBlack(1, 2, true);
+        table.put(grid.getStateHash(), 42);
+        assertEquals(42, table.get(grid.getStateHash(), -1));
+
+        grid.setBlack(1, 2, false);
+        assertEquals(-1, table.get(grid.getStateHash(), -1), "État jamais enregistré");
+        grid.setBlack(1, 2, true);
+        assertEquals(42, table.get(grid.getStateHash(), -1));
+    }
+
+    @Test
+    void testNoSolution() {
+        Grid grid = new Grid(2);
+        for (int i = 0; i < 2; i++) {
+            for (int j = 0; j < 2; j++) {
+                grid.setCell(i, j, 1);
+            }
+        }
+
+        SolveResult result = new HitoriSolver().solve(grid);
+        assertEquals(SolveResult.Status.NO_SOLUTION, result.getStatus());
+        assertThrows(IllegalStateException.class, () -> result.applyTo(grid));
+    }
+}
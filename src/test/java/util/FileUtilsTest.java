@@ -0,0 +1,476 @@
+package util;
+
+import controller.HitoriGame;
+import exception.GridFormatException;
+import exception.SaveLockedException;
+import model.Grid;
+import model.ScoreEntry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileUtilsTest {
+
+    @Test
+    void testJournalReplaysMovesAfterSnapshot(@TempDir Path directory) throws Exception {
+        Path snapshot = directory.resolve("savegame.dat");
+        Path journalFile = directory.resolve("savegame.journal");
+        HitoriGame game = new HitoriGame();
+        game.loadGrid("easy");
+
+        MoveJournal journal = new MoveJournal(snapshot, journalFile);
+        journal.start(game, 0, 0);
+        game.toggleCell(0, 0);
+        journal.recordCell(0, 0, true);
+        game.toggleCell(2, 3);
+        journal.recordCell(2, 3, true);
+        journal.recordTick(17, 2);
+        // Pas de close : on simule un arrêt brutal, avec un enregistrement tronqué
+        Files.write(journalFile, new byte[] {0, 0, 0, 1, 0}, StandardOpenOption.APPEND);
+
+        FileUtils.GameState state = FileUtils.loadGameState(snapshot, journalFile);
+        assertTrue(state.game.getGrid().isBlack(0, 0));
+        assertTrue(state.game.getGrid().isBlack(2, 3));
+        assertEquals(17, state.seconds);
+        assertEquals(2, state.moveCount);
+
+        // Après compactage, le journal est vide et la sauvegarde suffit
+        journal.compact(game, 17, 2);
+        journal.close();
+        assertEquals(0, Files.size(journalFile));
+        state = FileUtils.loadGameState(snapshot, journalFile);
+        assertTrue(state.game.getGrid().isBlack(2, 3));
+        assertEquals(17, state.seconds);
+    }
+
+    @Test
+    void testBinarySaveRoundTrip(@TempDir Path directory) throws Exception {
+        Path snapshot = directory.resolve("savegame.dat");
+        Grid grid = new Grid(70);
+        for (int i = 0; i < 70; i++) {
+            for (int j = 0; j < 70; j++) {
+                grid.setCell(i, j, (i + j) % 70 + 1);
+            }
+        }
+        grid.setBlack(0, 0, true);
+        grid.setBlack(69, 68, true);
+        HitoriGame game = new HitoriGame();
+        game.setGrid(grid);
+        game.setLevel("custom");
+
+        FileUtils.saveGameState(game, 125, 9, snapshot);
+        FileUtils.GameState state = FileUtils.loadGameState(snapshot, directory.resolve("absent.journal"));
+
+        Grid loaded = state.game.getGrid();
+        assertEquals("custom", state.level);
+        assertEquals(125, state.seconds);
+        assertEquals(9, state.moveCount);
+        assertEquals(grid.toString(), loaded.toString());
+        assertEquals(grid.getStateHash(), loaded.getStateHash());
+        assertEquals(1, loaded.getValue(0, 0), "Les chiffres des cases noires sont conservés");
+        assertEquals(68, loaded.getValue(69, 68));
+    }
+
+    @Test
+    void testCorruptBinarySaveIsRejected(@TempDir Path directory) throws Exception {
+        Path snapshot = directory.resolve("savegame.dat");
+        Path journal = directory.resolve("absent.journal");
+        HitoriGame game = new HitoriGame();
+        game.loadGrid("easy");
+        byte[] valid = FileUtils.encodeGameState(game, 10, 2).array();
+
+        // Fichier tronqué
+        Files.write(snapshot, Arrays.copyOf(valid, valid.length - 3));
+        assertThrows(IOException.class, () -> FileUtils.loadGameState(snapshot, journal));
+        // Longueur du niveau au-delà du fichier
+        byte[] bytes = valid.clone();
+        bytes[6] = (byte) 0xFF;
+        bytes[7] = (byte) 0xFF;
+        Files.write(snapshot, bytes);
+        assertThrows(IOException.class, () -> FileUtils.loadGameState(snapshot, journal));
+        // Taille de grille incohérente avec les données
+        ByteBuffer header = ByteBuffer.wrap(valid.clone());
+        int sizeOffset = 8 + header.getShort(6);
+        header.putInt(sizeOffset, 30000);
+        Files.write(snapshot, header.array());
+        assertThrows(IOException.class, () -> FileUtils.loadGameState(snapshot, journal));
+    }
+
+    @Test
+    void testTextSaveIsMigrated(@TempDir Path directory) throws Exception {
+        Path snapshot = directory.resolve("savegame.dat");
+        Files.writeString(snapshot, "2 30 4\n1 B 2 W\n2 W 1 W\n");
+
+        FileUtils.GameState state = FileUtils.loadGameState(snapshot, directory.resolve("absent.journal"));
+        assertEquals(30, state.seconds);
+        assertTrue(state.game.getGrid().isBlack(0, 0));
+        assertEquals(2, state.game.getGrid().getValue(1, 0));
+
+        // La sauvegarde a été réécrite au format binaire
+        assertEquals('H', Files.readAllBytes(snapshot)[0]);
+        assertEquals(30, FileUtils.loadGameState(snapshot, directory.resolve("absent.journal")).seconds);
+    }
+
+    @Test
+    void testPuzzlePackRandomAccess(@TempDir Path directory) throws Exception {
+        Path pack = directory.resolve("levels.hpak");
+        assertEquals(3, PuzzlePack.build(Path.of("src/main/resources/grids"), pack));
+
+        PuzzlePack opened = PuzzlePack.open(pack);
+        assertEquals(3, opened.size());
+        // Ordre des noms : easy, hard, medium
+        String[] levels = {"easy", "hard", "medium"};
+        for (int n = 0; n < levels.length; n++) {
+            Grid expected = FileUtils.loadGridFromFile(levels[n]);
+            assertEquals(expected.getSize(), opened.getGridSize(n));
+            assertEquals(expected.toString(), opened.load(n).toString());
+            assertEquals(n, opened.getId(n), "Sans numéro dans le nom, l'identifiant est la position");
+        }
+
+        HitoriGame game = new HitoriGame();
+        game.loadGrid(opened, 2);
+        assertEquals(7, game.getGrid().getSize());
+        assertThrows(IndexOutOfBoundsException.class, () -> opened.load(3));
+
+        // Paquet tronqué : la dernière grille n'a plus toutes ses données
+        Path truncated = directory.resolve("truncated.hpak");
+        byte[] bytes = Files.readAllBytes(pack);
+        Files.write(truncated, Arrays.copyOf(bytes, bytes.length - 2));
+        PuzzlePack broken = PuzzlePack.open(truncated);
+        assertEquals(5, broken.load(0).getSize(), "Les grilles intactes restent lisibles");
+        IllegalStateException error = assertThrows(IllegalStateException.class, () -> broken.load(2));
+        assertTrue(error.getMessage().contains(truncated.toString()), "Le message doit nommer le paquet");
+    }
+
+    @Test
+    void testParserReportsPosition() {
+        GridFormatException tooShort = assertThrows(GridFormatException.class,
+            () -> GridParser.parse(bytes("1 2 3\n3 1 2\n2 3\n")));
+        assertEquals(3, tooShort.getLine());
+
+        GridFormatException badChar = assertThrows(GridFormatException.class,
+            () -> GridParser.parse(bytes("1 2\n2 x\n")));
+        assertEquals(2, badChar.getLine());
+        assertEquals(3, badChar.getColumn());
+
+        assertThrows(GridFormatException.class, () -> GridParser.parse(bytes("1 2\n2 1\n1 2\n")));
+        assertThrows(GridFormatException.class, () -> GridParser.parse(bytes("  \n")));
+    }
+
+    @Test
+    void testParserMatchesWriter(@TempDir Path directory) throws Exception {
+        Grid grid = new Grid(300);
+        for (int i = 0; i < 300; i++) {
+            for (int j = 0; j < 300; j++) {
+                grid.setCell(i, j, (i * 7 + j) % 300 + 1);
+            }
+        }
+        Path file = directory.resolve("grid_big.txt");
+        FileUtils.saveGridToPath(grid, file);
+
+        Grid parsed = FileUtils.loadGridFromPath(file);
+        assertEquals(grid.toString(), parsed.toString());
+        // Fin de ligne Windows et sans saut final
+        Grid crlf = GridParser.parse(bytes("3 1\r\n1 3"));
+        assertEquals(3, crlf.getValue(1, 1));
+    }
+
+    private static ByteBuffer bytes(String text) {
+        return ByteBuffer.wrap(text.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    void testRepositoryReadsEachPuzzleOnce(@TempDir Path directory) throws Exception {
+        Files.writeString(directory.resolve("grid_custom.txt"), "1 2\n2 1\n");
+        PuzzleRepository repository = new PuzzleRepository(directory, 2);
+
+        Grid first = repository.load("custom");
+        first.setBlack(0, 0, true);
+        Grid second = repository.load("CUSTOM");
+        assertNotSame(first, second);
+        assertTrue(second.isWhite(0, 0), "Chaque chargement reçoit une grille neuve");
+        assertEquals(1, repository.getDiskReads());
+
+        // Niveaux du jeu trouvés par le classpath
+        assertEquals(5, repository.load("easy").getSize());
+        repository.load("medium");
+        repository.load("easy");
+        assertEquals(3, repository.getDiskReads());
+        // Capacité de 2 : « custom », le moins récent, a été évincé
+        repository.load("custom");
+        assertEquals(4, repository.getDiskReads());
+
+        assertThrows(IOException.class, () -> repository.load("absent"));
+    }
+
+    @Test
+    void testConcurrentLoadsShareOneRead(@TempDir Path directory) throws Exception {
+        // Grille assez grande pour que les lectures se chevauchent
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 400; i++) {
+            for (int j = 0; j < 400; j++) {
+                text.append(j == 0 ? "" : " ").append((i + j) % 400 + 1);
+            }
+            text.append('\n');
+        }
+        Files.writeString(directory.resolve("grid_big.txt"), text);
+        PuzzleRepository repository = new PuzzleRepository(directory, 4);
+
+        CompletableFuture<Void> prefetch = repository.prefetch("big");
+        ExecutorService threads = Executors.newFixedThreadPool(4);
+        List<Future<Grid>> loads = new ArrayList<>();
+        for (int k = 0; k < 4; k++) {
+            loads.add(threads.submit(() -> repository.load("big")));
+        }
+        for (Future<Grid> load : loads) {
+            assertEquals(400, load.get(30, TimeUnit.SECONDS).getSize());
+        }
+        prefetch.get(30, TimeUnit.SECONDS);
+        threads.shutdown();
+        assertEquals(1, repository.getDiskReads(), "Une seule lecture pour tous les appels");
+    }
+
+    @Test
+    void testAutosaveCoalescesChanges(@TempDir Path directory) throws Exception {
+        Path snapshot = directory.resolve("savegame.dat");
+        HitoriGame game = new HitoriGame();
+        game.loadGrid("easy");
+        AtomicInteger captures = new AtomicInteger();
+        CountDownLatch saved = new CountDownLatch(1);
+
+        AutosaveService autosave = new AutosaveService(snapshot, 200, Runnable::run, () -> {
+            captures.incrementAndGet();
+            return new AutosaveService.Snapshot(FileUtils.encodeGameState(game, 42, 3), saved::countDown);
+        });
+        game.toggleCell(0, 0);
+        for (int k = 0; k < 100; k++) {
+            autosave.markDirty();
+        }
+        assertTrue(saved.await(5, TimeUnit.SECONDS), "La sauvegarde doit avoir lieu");
+        autosave.close();
+        assertEquals(1, captures.get(), "Les changements rapprochés sont regroupés");
+
+        FileUtils.GameState state = FileUtils.loadGameState(snapshot, directory.resolve("absent.journal"));
+        assertEquals(42, state.seconds);
+        assertTrue(state.game.getGrid().isBlack(0, 0));
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(1, files.count(), "Aucun fichier temporaire ne reste");
+        }
+    }
+
+    @Test
+    void testLeaderboardKeepsTopScoresPerLevel(@TempDir Path directory) throws Exception {
+        Path log = directory.resolve("scores.log");
+        Leaderboard leaderboard = new Leaderboard(log, 3);
+        leaderboard.submit(new ScoreEntry("ana", "easy", 90, 12, 1L));
+        leaderboard.submit(new ScoreEntry("bob", "easy", 45, 10, 2L));
+        leaderboard.submit(new ScoreEntry("eve", "hard", 300, 40, 3L));
+        leaderboard.submit(new ScoreEntry("luc", "easy", 45, 8, 4L));
+        leaderboard.submit(new ScoreEntry("zoé", "easy", 200, 20, 5L));
+        leaderboard.submit(new ScoreEntry("tab\tnom", "easy", 60, 9, 6L));
+
+        List<ScoreEntry> easy = leaderboard.topScores("easy", 10);
+        assertEquals(3, easy.size(), "Seuls les 3 meilleurs sont gardés");
+        assertEquals("luc", easy.get(0).getPlayerName(), "À temps égal, le moins de coups passe devant");
+        assertEquals("bob", easy.get(1).getPlayerName());
+        assertEquals(60, easy.get(2).getScore());
+        assertEquals(1, leaderboard.topScores("hard", 10).size());
+        assertEquals(45, leaderboard.topScores(Leaderboard.ALL_LEVELS, 1).get(0).getScore());
+        assertTrue(leaderboard.topScores("medium", 10).isEmpty());
+
+        // Le journal garde tout l'historique, une ligne par score
+        Files.write(log, "7\teasy\tcoupé".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        assertEquals(7, Files.readAllLines(log).size());
+        Leaderboard reopened = new Leaderboard(log, 3);
+        assertEquals(easy.size(), reopened.topScores("easy", 10).size());
+        for (int k = 0; k < easy.size(); k++) {
+            assertEquals(0, easy.get(k).compareTo(reopened.topScores("easy", 10).get(k)));
+        }
+        assertEquals("tab nom", reopened.topScores("easy", 3).get(2).getPlayerName());
+    }
+
+    @Test
+    void testScoreIndexMatchesSortedScores() {
+        ScoreIndex index = new ScoreIndex();
+        Random random = new Random(7);
+        int[] times = new int[5000];
+        for (int k = 0; k < times.length; k++) {
+            // Quelques temps au-delà de la taille initiale, pour agrandir l'arbre
+            times[k] = k % 100 == 0 ? 3000 + random.nextInt(5000) : random.nextInt(600);
+            index.add(times[k]);
+        }
+        Arrays.sort(times);
+
+        assertEquals(times.length, index.count());
+        for (int rank = 1; rank <= times.length; rank += 37) {
+            assertEquals(times[rank - 1], index.timeAtRank(rank), "Temps au rang " + rank);
+        }
+        assertEquals(times[times.length - 1], index.timeAtRank(times.length));
+        for (int seconds : new int[] {0, 1, 250, 599, 600, 4000, 9000}) {
+            int faster = 0;
+            while (faster < times.length && times[faster] < seconds) {
+                faster++;
+            }
+            assertEquals(faster + 1, index.rank(seconds), "Rang de " + seconds + " s");
+        }
+        assertArrayEquals(Arrays.copyOfRange(times, 98, 103), index.around(101, 2));
+        assertArrayEquals(Arrays.copyOfRange(times, 0, 3), index.around(1, 2));
+        assertEquals(0.0, index.percentile(times[times.length - 1]), 1e-9);
+        // Temps extrêmes : pas de débordement aux bornes de l'int
+        assertEquals(times.length, index.countAtMost(Integer.MAX_VALUE));
+        assertEquals(0.0, index.percentile(Integer.MAX_VALUE), 1e-9);
+        assertEquals(1, index.rank(Integer.MIN_VALUE));
+        assertEquals(0, index.countAtMost(Integer.MIN_VALUE));
+
+        // Histogramme écrit puis relu à l'identique
+        ByteBuffer buffer = ByteBuffer.allocate(index.encodedSize());
+        index.write(buffer);
+        buffer.flip();
+        ScoreIndex copy = ScoreIndex.read(buffer);
+        assertEquals(index.count(), copy.count());
+        assertEquals(index.rank(300), copy.rank(300));
+        assertEquals(index.timeAtRank(4321), copy.timeAtRank(4321));
+    }
+
+    @Test
+    void testLeaderboardIndexReplaysOnlyLogTail(@TempDir Path directory) throws Exception {
+        Path log = directory.resolve("scores.log");
+        Path indexFile = directory.resolve("scores.idx");
+        Leaderboard leaderboard = new Leaderboard(log, indexFile, 5);
+        for (int k = 0; k < 300; k++) {
+            leaderboard.submit(new ScoreEntry("j" + k, k % 2 == 0 ? "easy" : "hard", 1000 - k, k, k));
+        }
+        assertTrue(Files.exists(indexFile), "L'index est écrit régulièrement");
+        assertEquals(150, leaderboard.count("easy"));
+        assertEquals(1, leaderboard.rank("hard", 701));
+        assertEquals(300, leaderboard.count(Leaderboard.ALL_LEVELS));
+
+        // Un score ajouté par un autre programme après l'index est relu
+        Files.write(log, Leaderboard.format(new ScoreEntry("ext", "easy", 10, 3, 999L))
+            .getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        Leaderboard reopened = new Leaderboard(log, indexFile, 5);
+        assertEquals(151, reopened.count("easy"));
+        assertEquals(1, reopened.rank("easy", 10));
+        assertEquals("ext", reopened.topScores("easy", 1).get(0).getPlayerName());
+        assertEquals("hard", reopened.topScores(Leaderboard.ALL_LEVELS, 2).get(1).getLevel());
+        assertArrayEquals(leaderboard.scoresAround("hard", 50, 3), reopened.scoresAround("hard", 50, 3));
+
+        // Un index illisible est ignoré : tout le journal est relu
+        Files.write(indexFile, new byte[] {1, 2, 3});
+        assertEquals(301, new Leaderboard(log, indexFile, 5).count(Leaderboard.ALL_LEVELS));
+    }
+
+    @Test
+    void testJournalLockedByOtherInstance(@TempDir Path directory) throws Exception {
+        Path snapshot = directory.resolve("savegame.dat");
+        Path journalFile = directory.resolve("savegame.journal");
+        HitoriGame game = new HitoriGame();
+        game.loadGrid("easy");
+
+        MoveJournal first = new MoveJournal(snapshot, journalFile);
+        first.start(game, 5, 1);
+        first.recordCell(1, 1, true);
+        MoveJournal second = new MoveJournal(snapshot, journalFile);
+        assertThrows(SaveLockedException.class, () -> second.start(game, 0, 0));
+        // Le journal de la première instance est intact
+        assertEquals(MoveJournal.RECORD_BYTES, Files.size(journalFile));
+
+        first.close();
+        second.start(game, 0, 0);
+        second.recordTick(0, 0);
+        second.close();
+        assertEquals(MoveJournal.RECORD_BYTES, Files.size(journalFile), "Journal repris par la seconde instance");
+    }
+
+    @Test
+    void testSavedGameSurvivesOpeningAnotherLevel(@TempDir Path directory) throws Exception {
+        Path snapshot = directory.resolve("savegame.dat");
+        Path journalFile = directory.resolve("savegame.journal");
+        HitoriGame saved = new HitoriGame();
+        saved.loadGrid("medium");
+        MoveJournal journal = new MoveJournal(snapshot, journalFile);
+        journal.start(saved, 30, 0);
+        saved.toggleCell(0, 0);
+        journal.recordCell(0, 0, true);
+        journal.recordTick(42, 1);
+        journal.close();
+
+        // Un autre niveau est ouvert puis quitté sans jouer
+        HitoriGame other = new HitoriGame();
+        other.loadGrid("easy");
+        MoveJournal opened = new MoveJournal(snapshot, journalFile);
+        opened.start(other, 0, 0);
+        opened.close();
+
+        FileUtils.GameState state = FileUtils.loadGameState(snapshot, journalFile);
+        assertEquals("medium", state.level);
+        assertEquals(42, state.seconds);
+        assertTrue(state.game.getGrid().isBlack(0, 0), "Le journal de la partie sauvegardée est intact");
+
+        // Au premier coup, la nouvelle partie remplace la sauvegarde
+        opened = new MoveJournal(snapshot, journalFile);
+        opened.start(other, 0, 0);
+        other.toggleCell(1, 1);
+        opened.recordCell(1, 1, true);
+        opened.close();
+        state = FileUtils.loadGameState(snapshot, journalFile);
+        assertEquals("easy", state.level);
+        assertTrue(state.game.getGrid().isBlack(1, 1));
+        assertFalse(state.game.getGrid().isBlack(0, 0));
+    }
+
+    @Test
+    void testLeaderboardKeepsConcurrentSubmissions(@TempDir Path directory) throws Exception {
+        Path log = directory.resolve("scores.log");
+        Leaderboard leaderboard = new Leaderboard(log, directory.resolve("scores.idx"), 10);
+        // Ligne tronquée laissée par une autre instance arrêtée en pleine écriture
+        Files.write(log, "123\teasy\tcou".getBytes(StandardCharsets.UTF_8));
+
+        ExecutorService threads = Executors.newFixedThreadPool(8);
+        List<Future<?>> submissions = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int thread = t;
+            submissions.add(threads.submit(() -> {
+                for (int k = 0; k < 100; k++) {
+                    leaderboard.submit(new ScoreEntry("t" + thread, "easy", thread * 100 + k, k, k));
+                }
+                return null;
+            }));
+        }
+        for (Future<?> submission : submissions) {
+            submission.get(30, TimeUnit.SECONDS);
+        }
+        threads.shutdown();
+
+        assertEquals(800, leaderboard.count("easy"));
+        assertEquals(0, leaderboard.topScores("easy", 1).get(0).getScore());
+        Leaderboard reopened = new Leaderboard(log, null, 10);
+        assertEquals(800, reopened.count("easy"), "Aucun score perdu ni collé à la ligne tronquée");
+        assertEquals(400, reopened.rank("easy", 399));
+
+        // Un score impossible à écrire est refusé sans bloquer les suivants
+        assertThrows(IOException.class, () -> leaderboard.submit(new ScoreEntry(null, "easy", 5, 1, 1L)));
+        leaderboard.submit(new ScoreEntry("ok", "easy", 5, 1, 1L));
+        assertEquals(801, leaderboard.count("easy"));
+    }
+}